@@ -0,0 +1,291 @@
+package http;
+
+import com.google.gson.Gson;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import service.ConcurrentTaskManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки на HttpTaskServer: смешанный поток запросов к /tasks, /subtasks, /epics, /history
+ * и /prioritized от нескольких клиентов на java.net.http.HttpClient с отчетом о пропускной способности
+ * и задержках p50/p99/p99.9 по {@link LatencyHistogram}.
+ * <p>
+ * По умолчанию поднимает сервер на свободном локальном порту с заполненным ConcurrentTaskManager
+ * и прогоняет нагрузку в каждом сочетании режимов исполнителя и JSON, чтобы их можно было сравнить
+ * на одной машине. Параметры — системные свойства:
+ * <ul>
+ *     <li>{@code load.seconds} — длительность замера (10), {@code load.warmupSeconds} — прогрева (3);</li>
+ *     <li>{@code load.clients} — параллельных клиентов (число ядер);</li>
+ *     <li>{@code load.rate} — целевая суммарная частота запросов в секунду; 0 — без ограничения (0).
+ *     При заданной частоте задержка считается от запланированного момента запроса, поэтому очередь
+ *     перед перегруженным сервером не прячется (coordinated omission);</li>
+ *     <li>{@code load.executor} и {@code load.json} — режимы сервера или ALL (ALL);</li>
+ *     <li>{@code load.mix} — веса операций, например {@code list=30,get=20,update=10} (см. {@link Operation});</li>
+ *     <li>{@code load.tasks} — задач в начальном наборе (1000);</li>
+ *     <li>{@code load.port} — нагружать уже запущенный сервер на этом порту вместо встроенного.</li>
+ * </ul>
+ * Запуск: {@code java -Dload.seconds=20 -cp out http.HttpLoadGenerator}.
+ */
+public class HttpLoadGenerator {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int EPICS = 50;
+    private static final int SUBTASKS_PER_EPIC = 10;
+    private static final String DEFAULT_MIX =
+            "list=20,get=20,update=10,subtasks=10,epics=10,epic=10,history=10,prioritized=10";
+
+    enum Operation {
+        // GET /tasks
+        LIST,
+        // GET /tasks/{id}
+        GET,
+        // POST /tasks — смена статуса существующей задачи
+        UPDATE,
+        // GET /subtasks
+        SUBTASKS,
+        // GET /epics
+        EPICS,
+        // GET /epics/{id}/subtasks
+        EPIC,
+        // GET /history
+        HISTORY,
+        // GET /prioritized
+        PRIORITIZED
+    }
+
+    // Результат одного клиента: гистограммы по операциям и число ошибок
+    private static final class ClientResult {
+        final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+        long errors;
+
+        ClientResult() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int seconds = Integer.getInteger("load.seconds", 10);
+        int warmupSeconds = Integer.getInteger("load.warmupSeconds", 3);
+        int clients = Integer.getInteger("load.clients", Runtime.getRuntime().availableProcessors());
+        double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+        int tasks = Integer.getInteger("load.tasks", 1000);
+        int port = Integer.getInteger("load.port", 0);
+        Operation[] mix = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+
+        System.out.printf("Клиентов: %d, %d с замера после %d с прогрева, частота: %s, задач: %d%n",
+                clients, seconds, warmupSeconds, rate > 0 ? String.format("%.0f/с", rate) : "без ограничения",
+                tasks);
+        if (port > 0) {
+            run("внешний сервер :" + port, port, tasks, clients, rate, mix, warmupSeconds, seconds);
+            return;
+        }
+        for (ServerConfig.ExecutorMode executor : modes(ServerConfig.ExecutorMode.class, "load.executor")) {
+            for (ServerConfig.JsonMode json : modes(ServerConfig.JsonMode.class, "load.json")) {
+                ConcurrentTaskManager manager = seed(tasks);
+                HttpTaskServer server = new HttpTaskServer(manager, new ServerConfig(0, 1024, executor, 0, json));
+                server.start();
+                try {
+                    run(executor + "/" + json, server.getPort(), tasks, clients, rate, mix, warmupSeconds, seconds);
+                } finally {
+                    server.stop();
+                }
+            }
+        }
+    }
+
+    private static void run(String label, int port, int tasks, int clients, double rate, Operation[] mix,
+                            int warmupSeconds, int seconds) throws Exception {
+        if (warmupSeconds > 0) {
+            drive(port, tasks, clients, rate, mix, warmupSeconds);
+        }
+        List<ClientResult> results = drive(port, tasks, clients, rate, mix, seconds);
+
+        LatencyHistogram total = new LatencyHistogram();
+        long errors = 0;
+        for (ClientResult result : results) {
+            for (LatencyHistogram histogram : result.histograms) {
+                total.add(histogram);
+            }
+            errors += result.errors;
+        }
+        System.out.printf("%n%s: %.0f запросов/с, ошибок %d%n", label, total.getTotalCount() / (double) seconds,
+                errors);
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n",
+                "Операция", "Запросов", "p50 мкс", "p99 мкс", "p99.9 мкс", "Макс мкс", "Сред мкс");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (ClientResult result : results) {
+                merged.add(result.histograms[operation.ordinal()]);
+            }
+            if (merged.getTotalCount() > 0) {
+                printRow(operation.name().toLowerCase(Locale.ROOT), merged);
+            }
+        }
+        printRow("всего", total);
+    }
+
+    private static List<ClientResult> drive(int port, int tasks, int clients, double rate, Operation[] mix,
+                                            int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            long started = System.nanoTime();
+            long deadline = started + seconds * 1_000_000_000L;
+            // Каждый клиент отправляет свою долю от общей частоты с равным интервалом
+            long intervalNanos = rate > 0 ? (long) (1e9 * clients / rate) : 0;
+            List<Future<ClientResult>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                futures.add(pool.submit(() ->
+                        client(port, tasks, mix, new SplittableRandom(seed), started, deadline, intervalNanos)));
+            }
+            List<ClientResult> results = new ArrayList<>();
+            for (Future<ClientResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ClientResult client(int port, int tasks, Operation[] mix, SplittableRandom random,
+                                       long started, long deadline, long intervalNanos) {
+        HttpClient client = HttpClient.newHttpClient();
+        Gson gson = HttpTaskServer.getGson();
+        String base = "http://localhost:" + port;
+        ClientResult result = new ClientResult();
+        long intended = started;
+        while (true) {
+            long now = System.nanoTime();
+            if (intervalNanos > 0) {
+                intended += intervalNanos;
+                if (intended > now) {
+                    LockSupport.parkNanos(intended - now);
+                }
+            } else {
+                intended = now;
+            }
+            if (intended >= deadline) {
+                return result;
+            }
+
+            Operation operation = mix[random.nextInt(mix.length)];
+            HttpRequest request = request(operation, base, tasks, gson, random);
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 300) {
+                    result.errors++;
+                }
+            } catch (Exception e) {
+                result.errors++;
+            }
+            result.histograms[operation.ordinal()].record(System.nanoTime() - intended);
+        }
+    }
+
+    private static HttpRequest request(Operation operation, String base, int tasks, Gson gson,
+                                       SplittableRandom random) {
+        switch (operation) {
+            case GET:
+                return get(base + "/tasks/" + (1 + random.nextInt(tasks)));
+            case UPDATE:
+                int id = 1 + random.nextInt(tasks);
+                Task task = new Task("Задача " + id, "Описание", id,
+                        Status.values()[random.nextInt(Status.values().length)],
+                        Duration.ofMinutes(15), BASE.plusMinutes(30L * id));
+                return HttpRequest.newBuilder(URI.create(base + "/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                        .build();
+            case SUBTASKS:
+                return get(base + "/subtasks");
+            case EPICS:
+                return get(base + "/epics");
+            case EPIC:
+                return get(base + "/epics/" + (tasks + 1 + random.nextInt(EPICS) * (SUBTASKS_PER_EPIC + 1))
+                        + "/subtasks");
+            case HISTORY:
+                return get(base + "/history");
+            case PRIORITIZED:
+                return get(base + "/prioritized");
+            default:
+                return get(base + "/tasks");
+        }
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    // Задачи получают id 1..tasks, затем эпики, за каждым — его подзадачи; у всех непересекающееся время
+    private static ConcurrentTaskManager seed(int tasks) {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        for (int i = 1; i <= tasks; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(15), BASE.plusMinutes(30L * i)));
+        }
+        long slot = tasks + 1;
+        for (int e = 0; e < EPICS; e++) {
+            Epic epic = manager.createEpic(new Epic("Эпик " + e, "Описание"));
+            for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(),
+                        Duration.ofMinutes(15), BASE.plusMinutes(30L * slot++)));
+            }
+        }
+        return manager;
+    }
+
+    // Раскладывает веса в массив операций, из которого клиенты выбирают равновероятно
+    static Operation[] parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Неверный элемент load.mix: " + part);
+            }
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            for (int i = Integer.parseInt(pair[1].trim()); i > 0; i--) {
+                operations.add(operation);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Пустой load.mix: " + mix);
+        }
+        return operations.toArray(new Operation[0]);
+    }
+
+    private static <E extends Enum<E>> List<E> modes(Class<E> type, String property) {
+        String value = System.getProperty(property, "ALL");
+        if ("ALL".equalsIgnoreCase(value)) {
+            return List.of(type.getEnumConstants());
+        }
+        return List.of(Enum.valueOf(type, value.toUpperCase(Locale.ROOT)));
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram) {
+        System.out.printf(Locale.ROOT, "%-12s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3,
+                histogram.getMax() / 1e3,
+                histogram.getMean() / 1e3);
+    }
+}
@@ -0,0 +1,91 @@
+package http;
+
+import model.Task;
+import model.enums.Status;
+import service.ConcurrentTaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный замер HttpTaskServer: пропускная способность в каждом режиме исполнителя
+ * при росте числа параллельных клиентов от 1 до количества ядер.
+ * <p>
+ * Запуск: {@code java -cp out http.HttpThroughputBenchmark [секунд на замер]}.
+ */
+public class HttpThroughputBenchmark {
+    private static final int TASKS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        List<Integer> clientCounts = new ArrayList<>();
+        for (int clients = 1; clients < cores; clients *= 2) {
+            clientCounts.add(clients);
+        }
+        clientCounts.add(cores);
+
+        // Прогрев JIT, результат не учитывается
+        measure(new ServerConfig(0, 1024, ServerConfig.ExecutorMode.FIXED, cores), cores, seconds);
+
+        System.out.printf("Ядер: %d, %d с на замер, GET /prioritized по %d задачам%n", cores, seconds, TASKS);
+        for (ServerConfig.ExecutorMode mode : ServerConfig.ExecutorMode.values()) {
+            for (int clients : clientCounts) {
+                double throughput = measure(new ServerConfig(0, 1024, mode, cores), clients, seconds);
+                System.out.printf("%-20s клиентов %3d: %10.0f запросов/с%n", mode, clients, throughput);
+            }
+        }
+    }
+
+    private static double measure(ServerConfig config, int clients, int seconds) throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < TASKS; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(10), base.plusMinutes(15L * i)));
+        }
+
+        HttpTaskServer server = new HttpTaskServer(manager, config);
+        server.start();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            URI uri = URI.create("http://localhost:" + server.getPort() + "/prioritized");
+            AtomicLong completed = new AtomicLong();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> {
+                    HttpClient client = HttpClient.newHttpClient();
+                    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                    while (System.nanoTime() < deadline) {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IOException("Неожиданный ответ " + response.statusCode());
+                        }
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return completed.get() / (double) seconds;
+        } finally {
+            pool.shutdownNow();
+            server.stop();
+        }
+    }
+}
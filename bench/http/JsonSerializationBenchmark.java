@@ -0,0 +1,97 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import util.IntLinkedSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Размер ответа и время сериализации списка задач: прежний режим (рефлексия, отступы,
+ * промежуточная строка) против компактного режима с ручными адаптерами и записью в буфер.
+ * <p>
+ * Запуск: {@code java -cp out http.JsonSerializationBenchmark [количество задач]}.
+ */
+public class JsonSerializationBenchmark {
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<Task> board = board(count);
+
+        Gson pretty = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(IntLinkedSet.class, new IntLinkedSetAdapter())
+                .create();
+        Gson compact = HttpTaskServer.getGson();
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            viaString(pretty, board);
+            viaBuffer(compact, board);
+        }
+
+        long started = System.nanoTime();
+        int prettySize = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            prettySize = viaString(pretty, board);
+        }
+        double prettyMillis = (System.nanoTime() - started) / 1e6 / ROUNDS;
+
+        started = System.nanoTime();
+        int compactSize = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            compactSize = viaBuffer(compact, board);
+        }
+        double compactMillis = (System.nanoTime() - started) / 1e6 / ROUNDS;
+
+        System.out.printf("%d задач%n", count);
+        System.out.printf("PRETTY + рефлексия + String: %8d байт, %7.2f мс%n", prettySize, prettyMillis);
+        System.out.printf("COMPACT + адаптеры + буфер:  %8d байт, %7.2f мс%n", compactSize, compactMillis);
+    }
+
+    private static int viaString(Gson gson, List<Task> board) {
+        return gson.toJson(board).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int viaBuffer(Gson gson, List<Task> board) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+            gson.toJson(board, writer);
+        }
+        return buffer.size();
+    }
+
+    private static List<Task> board(int count) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Task> board = new ArrayList<>(count);
+        Epic epic = null;
+        for (int id = 1; id <= count; id++) {
+            LocalDateTime start = base.plusMinutes(30L * id);
+            if (id % 10 == 1) {
+                epic = new Epic("Эпик " + id, "Описание эпика", id, Status.NEW, Duration.ZERO, null, null);
+                board.add(epic);
+            } else if (id % 2 == 0) {
+                epic.addSubtaskId(id);
+                board.add(new Subtask("Подзадача " + id, "Описание подзадачи", id, Status.IN_PROGRESS,
+                        epic.getId(), Duration.ofMinutes(15), start));
+            } else {
+                board.add(new Task("Задача " + id, "Описание задачи", id, Status.DONE, Duration.ofMinutes(15), start));
+            }
+        }
+        return board;
+    }
+}
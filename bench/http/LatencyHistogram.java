@@ -0,0 +1,111 @@
+package http;
+
+/**
+ * Гистограмма задержек по схеме HdrHistogram: значения до 2^subBucketBits хранятся точно, а дальше
+ * каждая степень двойки делится на 2^(subBucketBits - 1) равных корзин. Относительная погрешность
+ * не превышает 2^-(subBucketBits - 1) во всем диапазоне long, память — несколько десятков тысяч счетчиков.
+ * <p>
+ * Запись — инкремент счетчика без выделения памяти. Гистограмма не потокобезопасна: каждый поток
+ * пишет в свою, а для отчета они сливаются {@link #add}.
+ */
+public class LatencyHistogram {
+    // 2^10 корзин на степень двойки — три значащие цифры
+    public static final int DEFAULT_SUB_BUCKET_BITS = 11;
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+    private final long[] counts;
+    private long totalCount;
+    private long max;
+    private long sum;
+
+    public LatencyHistogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    public LatencyHistogram(int subBucketBits) {
+        if (subBucketBits < 2 || subBucketBits > 20) {
+            throw new IllegalArgumentException("Неверная точность гистограммы: " + subBucketBits);
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.subBucketHalfCount = subBucketCount >> 1;
+        // Точный участок плюс половина корзин на каждый оставшийся сдвиг до 63-го бита
+        this.counts = new long[subBucketCount + (64 - subBucketBits) * subBucketHalfCount];
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Отрицательное значение: " + value);
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        if (other.subBucketBits != subBucketBits) {
+            throw new IllegalArgumentException("Гистограммы разной точности");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Значение, не меньше которого percentile процентов записей (0 < percentile <= 100).
+     * Возвращается верхняя граница корзины, но не больше максимума.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestEquivalentValue(i));
+            }
+        }
+        return max;
+    }
+
+    private int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        // Сдвиг, при котором старший бит значения попадает в верхнюю половину точного участка
+        int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        int subBucket = (int) (value >>> shift);
+        return subBucketCount + (shift - 1) * subBucketHalfCount + (subBucket - subBucketHalfCount);
+    }
+
+    private long highestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index - subBucketCount) / subBucketHalfCount + 1;
+        long subBucket = (index - subBucketCount) % subBucketHalfCount + subBucketHalfCount;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
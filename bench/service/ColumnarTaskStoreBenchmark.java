@@ -0,0 +1,96 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+import util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Память и скорость проверки пересечений: задачи-объекты в IntHashMap с TimeIntervalIndex
+ * против ColumnarTaskStore.
+ * <p>
+ * Запуск с фиксированной кучей: {@code java -Xms2g -Xmx2g -cp out service.ColumnarTaskStoreBenchmark [задач]}.
+ */
+public class ColumnarTaskStoreBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int PROBES = 1_000_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        long before = usedMemory();
+        IntHashMap<Task> objects = new IntHashMap<>();
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        for (int i = 1; i <= count; i++) {
+            Task task = task(i);
+            objects.put(i, task);
+            index.add(task);
+        }
+        long objectBytes = usedMemory() - before;
+
+        before = usedMemory();
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (int i = 1; i <= count; i++) {
+            store.put(task(i));
+        }
+        long columnarBytes = usedMemory() - before;
+
+        // Пробные интервалы заранее, чтобы в замер не попало их создание
+        Random random = new Random(42);
+        LocalDateTime[] probeStarts = new LocalDateTime[PROBES];
+        long[] probeMinutes = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = BASE.plusMinutes(random.nextInt(count * 60));
+            probeMinutes[i] = ColumnarTaskStore.floorMinute(probeStarts[i]);
+        }
+
+        int hits = 0;
+        long objectNanos = 0;
+        long columnarNanos = 0;
+        // Первые прогоны — прогрев JIT, в итог идет последний
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PROBES; i++) {
+                if (index.hasOverlap(probeStarts[i], probeStarts[i].plusMinutes(15), 0)) {
+                    hits++;
+                }
+            }
+            objectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < PROBES; i++) {
+                if (store.hasOverlap(probeMinutes[i], probeMinutes[i] + 15, 0)) {
+                    hits++;
+                }
+            }
+            columnarNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("%,d задач, %,d проверок пересечения%n", count, PROBES);
+        System.out.printf("Объекты + TimeIntervalIndex: %,12d байт (%6.1f на задачу), %6.1f нс на проверку%n",
+                objectBytes, (double) objectBytes / count, (double) objectNanos / PROBES);
+        System.out.printf("ColumnarTaskStore:           %,12d байт (%6.1f на задачу), %6.1f нс на проверку%n",
+                columnarBytes, (double) columnarBytes / count, (double) columnarNanos / PROBES);
+
+        // Структуры должны дожить до последнего замера
+        if (objects.size() + store.size() + hits == 0) {
+            System.out.println();
+        }
+    }
+
+    // Часовые слоты по 30 минут: задачи не пересекаются, половина проб попадает в пустоту
+    private static Task task(int id) {
+        return new Task("Задача", "Описание", id, Status.NEW, Duration.ofMinutes(30), BASE.plusHours(id - 1));
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
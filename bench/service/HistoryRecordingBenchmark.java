@@ -0,0 +1,61 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Пропускная способность getTaskOrThrow из нескольких потоков: синхронная запись истории
+ * под монитором против асинхронной через кольцевой буфер.
+ * <p>
+ * Запуск: {@code java -cp out service.HistoryRecordingBenchmark [потоков] [чтений на поток]}.
+ */
+public class HistoryRecordingBenchmark {
+    private static final int TASKS = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        for (int round = 0; round < 3; round++) {
+            double sync = run(new ConcurrentTaskManager(Managers.getBoundedHistory(1000)), threads, reads);
+            AsyncHistoryManager async = new AsyncHistoryManager(Managers.getBoundedHistory(1000));
+            double asyncRate = run(new ConcurrentTaskManager(async), threads, reads);
+            async.close();
+            System.out.printf("потоков %d: синхронно %,12.0f чтений/с, асинхронно %,12.0f чтений/с%n",
+                    threads, sync, asyncRate);
+        }
+    }
+
+    private static double run(TaskManager manager, int threads, int reads) throws InterruptedException {
+        for (int i = 1; i <= TASKS; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < reads; i++) {
+                    manager.getTaskOrThrow((i * 31 + seed) % TASKS + 1);
+                }
+            });
+            workers[t].start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Учитываем и дочитывание буфера: история должна быть применена целиком
+        manager.getHistory();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return (double) threads * reads / seconds;
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import model.enums.Status;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Замер холодного старта FileBackedTaskManager.loadFromFile: время загрузки и пиковый размер кучи.
+ * <p>
+ * Запуск: {@code java -cp out service.LoadFromFileBenchmark [количество записей] [CSV|BINARY]}.
+ * Для честного замера пика кучи лучше запускать отдельной JVM на каждый размер.
+ */
+public class LoadFromFileBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SnapshotFormat format = args.length > 1 ? SnapshotFormat.valueOf(args[1]) : SnapshotFormat.CSV;
+        File file = File.createTempFile("load-benchmark", ".snapshot");
+        file.deleteOnExit();
+
+        writeBoard(file, records);
+        if (format == SnapshotFormat.BINARY) {
+            convertToBinary(file);
+        }
+        System.out.printf("Файл %s: %d записей, %.1f МБ%n", format, records, file.length() / 1024.0 / 1024.0);
+
+        System.gc();
+        long heapBefore = usedHeap();
+        resetPeaks();
+
+        long started = System.nanoTime();
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+        long elapsed = System.nanoTime() - started;
+
+        long peak = peakHeap();
+        int loaded = manager.getAllTasks().size() + manager.getAllEpics().size()
+                + manager.getAllSubtasks().size();
+
+        System.out.printf("Загружено %d записей за %.1f мс%n", loaded, elapsed / 1e6);
+        System.out.printf("Куча до загрузки: %.1f МБ, пик во время загрузки: %.1f МБ%n",
+                heapBefore / 1024.0 / 1024.0, peak / 1024.0 / 1024.0);
+    }
+
+    // Доска из задач, эпиков и подзадач с непересекающимися интервалами
+    static void writeBoard(File file, int records) throws IOException {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("id,type,name,status,description,epic,startTime,duration");
+            writer.newLine();
+            int epicId = 0;
+            for (int id = 1; id <= records; id++) {
+                Status status = Status.values()[id % Status.values().length];
+                String startTime = base.plusMinutes(30L * id).toString();
+                if (id % 10 == 1) {
+                    epicId = id;
+                    writer.write(id + ",EPIC,Эпик " + id + "," + status + ",Описание эпика,,,0");
+                } else if (id % 2 == 0) {
+                    writer.write(id + ",SUBTASK,Подзадача " + id + "," + status + ",Описание подзадачи,"
+                            + epicId + "," + startTime + ",15");
+                } else {
+                    writer.write(id + ",TASK,Задача " + id + "," + status + ",Описание задачи,,"
+                            + startTime + ",15");
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    // Перезаписывает CSV-доску двоичным снимком с тем же содержимым
+    static void convertToBinary(File file) throws IOException {
+        FileBackedTaskManager csv = FileBackedTaskManager.loadFromFile(file);
+        Files.write(file.toPath(), BinarySnapshot.encode(csv.getAllTasks(), csv.getAllEpics(), csv.getAllSubtasks()));
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,186 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import util.MicroBenchmark;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор микробенчмарков сервисного слоя: операции InMemoryTaskManager с временем и без,
+ * приоритетный список, агрегаты эпика, история, проверка расписания и сохранение/загрузка FileBackedTaskManager.
+ * <p>
+ * Запуск: {@code java -Xmx4g -cp out service.ServiceBenchmarkSuite [размеры через запятую]},
+ * по умолчанию 1000,100000; для 1M записей передайте {@code 1000,100000,1000000}.
+ * Параметры прогонщика — системные свойства, см. {@link MicroBenchmark#fromSystemProperties()}:
+ * например, {@code -Dbench.output=base.csv} сохраняет результаты, а {@code -Dbench.baseline=base.csv}
+ * сравнивает с ними и завершает процесс с кодом 1 при регрессиях.
+ */
+public class ServiceBenchmarkSuite {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int PRIORITIZED_READS = 10;
+    private static final int HISTORY_READS = 100;
+
+    public static void main(String[] args) throws Exception {
+        String sizes = args.length > 0 ? args[0] : "1000,100000";
+        MicroBenchmark bench = MicroBenchmark.fromSystemProperties();
+        bench.printHeader();
+
+        for (String value : sizes.split(",")) {
+            int size = Integer.parseInt(value.trim());
+            for (boolean timed : new boolean[]{false, true}) {
+                String suffix = timed ? ".timed" : ".untimed";
+                bench.run("manager.create" + suffix, size, n -> {
+                    InMemoryTaskManager manager = new InMemoryTaskManager();
+                    List<Task> tasks = tasks(n, timed);
+                    return () -> {
+                        for (Task task : tasks) {
+                            manager.createTask(task);
+                        }
+                        return n;
+                    };
+                });
+                bench.run("manager.update" + suffix, size, n -> {
+                    InMemoryTaskManager manager = filled(n, timed);
+                    List<Task> updates = tasks(n, timed);
+                    for (int i = 0; i < n; i++) {
+                        updates.get(i).setId(i + 1);
+                        updates.get(i).setStatus(Status.IN_PROGRESS);
+                    }
+                    return () -> {
+                        for (Task task : updates) {
+                            manager.updateTask(task);
+                        }
+                        return n;
+                    };
+                });
+                bench.run("manager.delete" + suffix, size, n -> {
+                    InMemoryTaskManager manager = filled(n, timed);
+                    return () -> {
+                        for (int id = 1; id <= n; id++) {
+                            manager.deleteTaskById(id);
+                        }
+                        return n;
+                    };
+                });
+            }
+
+            bench.run("manager.prioritized", size, n -> {
+                InMemoryTaskManager manager = filled(n, true);
+                return () -> {
+                    long total = 0;
+                    for (int i = 0; i < PRIORITIZED_READS; i++) {
+                        total += manager.getPrioritizedTasks().size();
+                    }
+                    return total;
+                };
+            });
+
+            // Смена статуса и времени подзадачи пересчитывает статус и время эпика
+            bench.run("epic.aggregate", size, n -> {
+                InMemoryTaskManager manager = new InMemoryTaskManager();
+                Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+                List<Subtask> updates = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW,
+                            epic.getId(), Duration.ofMinutes(15), BASE.plusMinutes(30L * i)));
+                    updates.add(new Subtask("Подзадача", "Описание", subtask.getId(), Status.DONE, epic.getId(),
+                            Duration.ofMinutes(10), BASE.plusMinutes(30L * i)));
+                }
+                return () -> {
+                    for (Subtask subtask : updates) {
+                        manager.updateSubtask(subtask);
+                    }
+                    return n;
+                };
+            });
+
+            bench.run("history.add", size, n -> {
+                InMemoryHistoryManager history = new InMemoryHistoryManager(InMemoryHistoryManager.DEFAULT_CAPACITY);
+                List<Task> tasks = tasks(n, false);
+                for (int i = 0; i < n; i++) {
+                    tasks.get(i).setId(i + 1);
+                }
+                return () -> {
+                    for (Task task : tasks) {
+                        history.add(task);
+                    }
+                    return n;
+                };
+            });
+            bench.run("history.getHistory", size, n -> {
+                InMemoryHistoryManager history = new InMemoryHistoryManager(InMemoryHistoryManager.DEFAULT_CAPACITY);
+                for (Task task : filled(n, false).getAllTasks()) {
+                    history.add(task);
+                }
+                return () -> {
+                    long total = 0;
+                    for (int i = 0; i < HISTORY_READS; i++) {
+                        total += history.getHistory().size();
+                    }
+                    return total;
+                };
+            });
+
+            // Проверка всего расписания, как при загрузке доски: последовательный и параллельный проход
+            bench.run("schedule.conflicts", size, n -> {
+                List<Task> tasks = tasks(n, true);
+                return () -> TimeUtils.findConflicts(tasks).size() + n;
+            });
+            bench.run("schedule.conflicts.parallel", size, n -> {
+                List<Task> tasks = tasks(n, true);
+                return () -> TimeUtils.findConflictsParallel(tasks).size() + n;
+            });
+
+            // Операция — одна запись доски, чтобы размеры сравнивались между собой
+            bench.run("file.save", size, n -> {
+                File file = board(n);
+                FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+                return () -> {
+                    manager.save();
+                    return n;
+                };
+            });
+            bench.run("file.load", size, n -> {
+                File file = board(n);
+                return () -> FileBackedTaskManager.loadFromFile(file).getAllTasks().size() + n;
+            });
+        }
+
+        if (bench.finish() > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Задачи без id; с временем — в непересекающихся получасовых слотах
+    private static List<Task> tasks(int count, boolean timed) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(timed
+                    ? new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(15), BASE.plusMinutes(30L * i))
+                    : new Task("Задача", "Описание", Status.NEW));
+        }
+        return tasks;
+    }
+
+    private static InMemoryTaskManager filled(int count, boolean timed) {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (Task task : tasks(count, timed)) {
+            manager.createTask(task);
+        }
+        return manager;
+    }
+
+    private static File board(int records) throws Exception {
+        File file = File.createTempFile("service-benchmark", ".csv");
+        file.deleteOnExit();
+        LoadFromFileBenchmark.writeBoard(file, records);
+        return file;
+    }
+}
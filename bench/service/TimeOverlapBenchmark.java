@@ -0,0 +1,82 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Полный перебор TimeUtils.hasTimeOverlap: сравнение кэшированных минут эпохи против прежнего
+ * вычисления startTime.plus(duration) и сравнения LocalDateTime на каждой паре.
+ * <p>
+ * Запуск: {@code java -cp out service.TimeOverlapBenchmark [задач] [проверок]}.
+ */
+public class TimeOverlapBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int probes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        // Непересекающиеся получасовые задачи в часовых слотах; пробы попадают в пустую половину слота
+        List<Task> existing = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            existing.add(new Task("Задача", "", i, Status.NEW, Duration.ofMinutes(30), BASE.plusHours(i - 1)));
+        }
+        Random random = new Random(42);
+        Task[] candidates = new Task[probes];
+        for (int i = 0; i < probes; i++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(count)).plusMinutes(30);
+            candidates[i] = new Task("Проба", "", count + i + 1, Status.NEW, Duration.ofMinutes(30), start);
+        }
+
+        long uncachedNanos = 0;
+        long cachedNanos = 0;
+        int hits = 0;
+        // Первые прогоны — прогрев JIT, в итог идет последний
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Task candidate : candidates) {
+                if (uncachedOverlap(candidate, existing)) {
+                    hits++;
+                }
+            }
+            uncachedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Task candidate : candidates) {
+                if (TimeUtils.hasTimeOverlap(candidate, existing)) {
+                    hits++;
+                }
+            }
+            cachedNanos = System.nanoTime() - start;
+        }
+
+        long pairs = (long) count * probes;
+        System.out.printf("%,d задач, %,d проверок (%,d пар)%n", count, probes, pairs);
+        System.out.printf("LocalDateTime без кэша: %8.2f нс на пару%n", (double) uncachedNanos / pairs);
+        System.out.printf("Кэшированные минуты:    %8.2f нс на пару%n", (double) cachedNanos / pairs);
+        if (hits != 0) {
+            System.out.println("Неожиданные пересечения: " + hits);
+        }
+    }
+
+    // Прежняя реализация: конец интервала вычисляется заново для каждой пары
+    private static boolean uncachedOverlap(Task newTask, Collection<Task> existingTasks) {
+        return existingTasks.stream()
+                .anyMatch(existingTask ->
+                        existingTask != null &&
+                                !existingTask.equals(newTask) &&
+                                existingTask.getStartTime() != null &&
+                                newTask.getStartTime().isBefore(existingTask.getStartTime()
+                                        .plus(existingTask.getDuration())) &&
+                                existingTask.getStartTime().isBefore(newTask.getStartTime()
+                                        .plus(newTask.getDuration())));
+    }
+}
@@ -0,0 +1,88 @@
+package util;
+
+import model.Task;
+import model.enums.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Занимаемая кучей память хранилищ без учета самих задач: HashMap&lt;Integer, Task&gt; против IntHashMap
+ * и ArrayList&lt;Integer&gt; против IntList и IntLinkedSet для id подзадач эпика.
+ * <p>
+ * Память меряется разницей занятой кучи после сборки мусора, поэтому запускать лучше с
+ * фиксированной кучей: {@code java -Xms2g -Xmx2g -cp out util.IntCollectionsFootprintBenchmark [записей]}.
+ */
+public class IntCollectionsFootprintBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        // Задачи создаются заранее и общие для всех вариантов: меряется только накладной расход структуры
+        Task[] board = new Task[count];
+        for (int i = 0; i < count; i++) {
+            board[i] = new Task("Задача", "Описание", i + 1, Status.NEW);
+        }
+
+        long before = usedMemory();
+        Map<Integer, Task> boxed = new HashMap<>();
+        for (Task task : board) {
+            boxed.put(task.getId(), task);
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntHashMap<Task> primitive = new IntHashMap<>();
+        for (Task task : board) {
+            primitive.put(task.getId(), task);
+        }
+        long primitiveBytes = usedMemory() - before;
+
+        before = usedMemory();
+        List<Integer> boxedIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boxedIds.add(i + 1_000);
+        }
+        long boxedIdsBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntList primitiveIds = new IntList();
+        for (int i = 0; i < count; i++) {
+            primitiveIds.add(i + 1_000);
+        }
+        long primitiveIdsBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntLinkedSet linkedIds = new IntLinkedSet();
+        for (int i = 0; i < count; i++) {
+            linkedIds.add(i + 1_000);
+        }
+        long linkedIdsBytes = usedMemory() - before;
+
+        System.out.printf("%,d записей%n", count);
+        System.out.printf("HashMap<Integer, Task>: %,12d байт (%5.1f на запись)%n",
+                boxedBytes, (double) boxedBytes / count);
+        System.out.printf("IntHashMap<Task>:       %,12d байт (%5.1f на запись)%n",
+                primitiveBytes, (double) primitiveBytes / count);
+        System.out.printf("ArrayList<Integer>:     %,12d байт (%5.1f на запись)%n",
+                boxedIdsBytes, (double) boxedIdsBytes / count);
+        System.out.printf("IntList:                %,12d байт (%5.1f на запись)%n",
+                primitiveIdsBytes, (double) primitiveIdsBytes / count);
+        System.out.printf("IntLinkedSet:           %,12d байт (%5.1f на запись)%n",
+                linkedIdsBytes, (double) linkedIdsBytes / count);
+
+        // Структуры должны дожить до последнего замера
+        if (boxed.size() + primitive.size() + boxedIds.size() + primitiveIds.size() + linkedIds.size() == 0) {
+            System.out.println();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
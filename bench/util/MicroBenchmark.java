@@ -0,0 +1,156 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Минимальный прогонщик микробенчмарков по образцу JMH: прогревочные и замерные итерации,
+ * подготовка состояния вне замера, медиана и минимум времени на операцию.
+ * <p>
+ * Результаты можно сохранить в файл и сравнить с ним следующий прогон: случаи, ставшие медленнее
+ * порога, помечаются как регрессии, и {@link #finish()} возвращает их количество.
+ */
+public class MicroBenchmark {
+    // Подготовка состояния для одной итерации; возвращает замеряемое действие
+    @FunctionalInterface
+    public interface Case {
+        Action prepare(int size) throws Exception;
+    }
+
+    // Замеряемое действие; возвращает число выполненных операций
+    @FunctionalInterface
+    public interface Action {
+        long run() throws Exception;
+    }
+
+    private static final class Result {
+        final String name;
+        final int size;
+        final double medianNanos;
+        final double minNanos;
+
+        Result(String name, int size, double medianNanos, double minNanos) {
+            this.name = name;
+            this.size = size;
+            this.medianNanos = medianNanos;
+            this.minNanos = minNanos;
+        }
+
+        String key() {
+            return name + "@" + size;
+        }
+    }
+
+    private final int warmups;
+    private final int iterations;
+    private final String filter;
+    private final Path baseline;
+    private final double threshold;
+    private final Path output;
+    private final List<Result> results = new ArrayList<>();
+    // Не дает JIT выбросить результат действия
+    private long sink;
+
+    /**
+     * filter — подстрока имени случая (null — все); baseline — файл прежних результатов для сравнения;
+     * threshold — допустимое замедление медианы, например 0.2; output — куда сохранить результаты.
+     */
+    public MicroBenchmark(int warmups, int iterations, String filter, Path baseline, double threshold, Path output) {
+        if (iterations <= 0 || warmups < 0) {
+            throw new IllegalArgumentException("Неверное число итераций: " + warmups + ", " + iterations);
+        }
+        this.warmups = warmups;
+        this.iterations = iterations;
+        this.filter = filter;
+        this.baseline = baseline;
+        this.threshold = threshold;
+        this.output = output;
+    }
+
+    // Параметры из системных свойств bench.warmups, bench.iterations, bench.filter, bench.baseline,
+    // bench.threshold и bench.output
+    public static MicroBenchmark fromSystemProperties() {
+        String baseline = System.getProperty("bench.baseline");
+        String output = System.getProperty("bench.output");
+        return new MicroBenchmark(
+                Integer.getInteger("bench.warmups", 3),
+                Integer.getInteger("bench.iterations", 5),
+                System.getProperty("bench.filter"),
+                baseline != null ? Path.of(baseline) : null,
+                Double.parseDouble(System.getProperty("bench.threshold", "0.2")),
+                output != null ? Path.of(output) : null);
+    }
+
+    public void run(String name, int size, Case benchmarkCase) throws Exception {
+        if (filter != null && !name.contains(filter)) {
+            return;
+        }
+        double[] nanosPerOp = new double[iterations];
+        for (int i = -warmups; i < iterations; i++) {
+            Action action = benchmarkCase.prepare(size);
+            System.gc();
+            long started = System.nanoTime();
+            long ops = action.run();
+            long elapsed = System.nanoTime() - started;
+            sink += ops;
+            if (i >= 0) {
+                nanosPerOp[i] = (double) elapsed / Math.max(1, ops);
+            }
+        }
+        Arrays.sort(nanosPerOp);
+        Result result = new Result(name, size, nanosPerOp[iterations / 2], nanosPerOp[0]);
+        results.add(result);
+        System.out.printf(Locale.ROOT, "%-32s %,10d %14.1f %14.1f%n",
+                name, size, result.medianNanos, result.minNanos);
+    }
+
+    public void printHeader() {
+        System.out.printf("%-32s %10s %14s %14s%n", "Случай", "Размер", "Медиана нс/оп", "Минимум нс/оп");
+    }
+
+    /**
+     * Сохраняет результаты и сравнивает их с базовым файлом; возвращает число регрессий.
+     * Формат файла — строки {@code имя@размер,медиана}.
+     */
+    public int finish() throws IOException {
+        if (output != null) {
+            List<String> lines = new ArrayList<>();
+            for (Result result : results) {
+                lines.add(result.key() + "," + String.format(Locale.ROOT, "%.3f", result.medianNanos));
+            }
+            Files.write(output, lines, StandardCharsets.UTF_8);
+        }
+        if (baseline == null) {
+            return 0;
+        }
+
+        Map<String, Double> previous = new HashMap<>();
+        for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            int comma = line.lastIndexOf(',');
+            if (comma > 0) {
+                previous.put(line.substring(0, comma), Double.parseDouble(line.substring(comma + 1)));
+            }
+        }
+        int regressions = 0;
+        for (Result result : results) {
+            Double before = previous.get(result.key());
+            if (before != null && result.medianNanos > before * (1 + threshold)) {
+                regressions++;
+                System.out.printf(Locale.ROOT, "РЕГРЕССИЯ %s: %.1f -> %.1f нс/оп (+%.0f%%)%n", result.key(),
+                        before, result.medianNanos, (result.medianNanos / before - 1) * 100);
+            }
+        }
+        if (sink == Long.MIN_VALUE) {
+            System.out.println();
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,37 @@
+package http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import service.PartitionedHistoryManager;
+
+import java.io.IOException;
+
+/**
+ * Привязывает поток обработки запроса к клиенту из заголовка {@value #CLIENT_ID_HEADER}, чтобы
+ * {@link PartitionedHistoryManager} записывал и отдавал историю этого клиента.
+ * Без заголовка используется общий раздел истории.
+ */
+public class ClientIdFilter extends Filter {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    // Длиннее идентификатор не нужен; ограничение не дает раздувать ключи разделов
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        if (clientId != null && clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            clientId = clientId.substring(0, MAX_CLIENT_ID_LENGTH);
+        }
+        PartitionedHistoryManager.setCurrentClient(clientId);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            PartitionedHistoryManager.clearCurrentClient();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Клиент запроса из заголовка " + CLIENT_ID_HEADER;
+    }
+}
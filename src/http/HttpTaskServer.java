@@ -2,67 +2,156 @@ package http;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import http.handler.*;
+import metrics.MetricsRegistry;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import service.ConcurrentTaskManager;
+import service.HistoryManager;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+import service.InstrumentedTaskManager;
 import service.Managers;
 import service.TaskManager;
+import util.IntLinkedSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
     private final HttpServer server;
     private final TaskManager taskManager;
     private final Gson gson;
+    private final ServerConfig config;
+    // null — запросы обрабатываются на потоке-диспетчере сервера
+    private final ExecutorService executor;
+    private final ClientIdFilter clientIdFilter = new ClientIdFilter();
+    private final MetricsRegistry metrics;
 
     public HttpTaskServer() throws IOException {
         this(Managers.getDefault());
     }
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ServerConfig.defaults());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
+        this(taskManager, config, MetricsRegistry.getDefault());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config, MetricsRegistry metrics) throws IOException {
         this.taskManager = taskManager;
-        this.gson = createGson();
+        this.metrics = metrics;
+        this.gson = createGson(config.getJsonMode());
+        this.config = config;
 
-        server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        executor = config.createExecutor();
+        server.setExecutor(executor);
         configureHandlers();
     }
 
-    private static Gson createGson() {
-        return new GsonBuilder()
-                .setPrettyPrinting()
+    private static Gson createGson(ServerConfig.JsonMode jsonMode) {
+        GsonBuilder builder = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(IntLinkedSet.class, new IntLinkedSetAdapter());
+        if (jsonMode == ServerConfig.JsonMode.PRETTY) {
+            return builder.setPrettyPrinting().create();
+        }
+        return builder
+                .registerTypeAdapter(Task.class, new TaskAdapter<>(Task.class))
+                .registerTypeAdapter(Epic.class, new TaskAdapter<>(Epic.class))
+                .registerTypeAdapter(Subtask.class, new TaskAdapter<>(Subtask.class))
                 .create();
     }
 
     private void configureHandlers() {
-        server.createContext("/tasks", new TaskHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubtaskHandler(taskManager, gson));
-        server.createContext("/epics", new EpicHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        boolean stream = config.isStreamCollections();
+        addContext("/tasks", new TaskHandler(taskManager, gson, stream));
+        addContext("/subtasks", new SubtaskHandler(taskManager, gson, stream));
+        addContext("/epics", new EpicHandler(taskManager, gson, stream));
+        addContext("/history", new HistoryHandler(taskManager, gson));
+        addContext("/prioritized", new PrioritizedHandler(taskManager, gson, stream));
+        addContext("/metrics", new MetricsHandler(metrics));
+    }
+
+    // Фильтр клиента на каждом контексте: просмотры и /history разделяются по X-Client-Id;
+    // фильтр метрик считает запросы и время их обработки по контексту
+    private void addContext(String path, HttpHandler handler) {
+        List<Filter> filters = server.createContext(path, handler).getFilters();
+        filters.add(new MetricsFilter(metrics, path));
+        filters.add(clientIdFilter);
     }
 
     public void start() {
         server.start();
-        System.out.println(String.format("HTTP Task Server запущен на порту %d", PORT));
+        System.out.println(String.format("HTTP Task Server запущен на порту %d (%s)",
+                getPort(), config.getExecutorMode()));
     }
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         System.out.println("HTTP Task Server остановлен");
     }
 
+    // Фактический порт: при порте 0 в настройках его выбирает ОС
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
     public static Gson getGson() {
-        return createGson();
+        return createGson(ServerConfig.JsonMode.COMPACT);
     }
 
+    /**
+     * Запуск сервера из командной строки.
+     * <p>
+     * Включает TCP_NODELAY для всех HttpServer этой JVM (системное свойство sun.net.httpserver.nodelay,
+     * если оно не задано явно): иначе заголовки и тело ответа уходят разными пакетами, и алгоритм Нейгла
+     * вместе с отложенным ACK клиента добавляет ~40 мс к каждому запросу. Свойство читается один раз при
+     * первом создании HttpServer, поэтому задается до него; встраивающее сервер приложение решает само.
+     */
     public static void main(String[] args) throws IOException {
-        TaskManager manager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(manager);
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ServerConfig config = ServerConfig.fromProperties(System.getProperties());
+        // История сервера ограничена, чтобы не расти с каждой просмотренной задачей. По умолчанию она ведется
+        // по клиентам; с -Dhistory.async=true — общая, с записью просмотров вне пути чтения
+        int historyCapacity = Integer.getInteger("history.capacity", InMemoryHistoryManager.DEFAULT_CAPACITY);
+        HistoryManager history = Boolean.getBoolean("history.async")
+                ? Managers.getAsyncHistory(historyCapacity)
+                : Managers.getPartitionedHistory(historyCapacity, Integer.getInteger("history.clients", 10_000),
+                Duration.ofMinutes(Long.getLong("history.idleMinutes", 30)));
+        // Обработчики из пула вызывают менеджер параллельно
+        TaskManager manager = config.getExecutorMode() == ServerConfig.ExecutorMode.DISPATCHER
+                ? new InMemoryTaskManager(history) : new ConcurrentTaskManager(history);
+        // Замеры операций менеджера и размер истории для /metrics; -Dmetrics.enabled=false их отключает
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        if (Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"))) {
+            manager = new InstrumentedTaskManager(manager, metrics);
+            metrics.gauge("task_history_size", "Записей в истории просмотров", history::size);
+        }
+        HttpTaskServer server = new HttpTaskServer(manager, config, metrics);
         server.start();
 
         // Добавляем shutdown hook для graceful shutdown
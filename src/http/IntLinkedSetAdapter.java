@@ -0,0 +1,40 @@
+package http;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntLinkedSet;
+
+import java.io.IOException;
+
+// Список id эпика в JSON — обычный массив чисел, как прежде у коллекции Integer
+public class IntLinkedSetAdapter extends TypeAdapter<IntLinkedSet> {
+    @Override
+    public void write(JsonWriter out, IntLinkedSet value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int id : value.toArray()) {
+            out.value(id);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public IntLinkedSet read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        IntLinkedSet list = new IntLinkedSet();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(in.nextInt());
+        }
+        in.endArray();
+        return list;
+    }
+}
@@ -0,0 +1,59 @@
+package http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Счетчики запросов по коду ответа и гистограмма длительности обработки для одного контекста сервера.
+ * Метрики получаются из реестра при создании фильтра (счетчик кода — при первом таком ответе),
+ * поэтому на каждом запросе остаются только инкременты LongAdder.
+ */
+public class MetricsFilter extends Filter {
+    private static final int MAX_STATUS_CODE = 599;
+
+    private final MetricsRegistry registry;
+    private final String handler;
+    private final Timer duration;
+    private final AtomicReferenceArray<Counter> requestsByCode = new AtomicReferenceArray<>(MAX_STATUS_CODE + 1);
+
+    public MetricsFilter(MetricsRegistry registry, String handler) {
+        this.registry = registry;
+        this.handler = handler;
+        this.duration = registry.timer("http_request_duration_seconds",
+                "Длительность обработки HTTP-запроса", "handler", handler);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            duration.recordSince(started);
+            requests(exchange.getResponseCode()).increment();
+        }
+    }
+
+    // Код -1 — ответ не отправлен (например, соединение оборвалось до ответа)
+    private Counter requests(int code) {
+        int index = code >= 0 && code <= MAX_STATUS_CODE ? code : 0;
+        Counter counter = requestsByCode.get(index);
+        if (counter == null) {
+            counter = registry.counter("http_requests_total", "Количество HTTP-запросов",
+                    "handler", handler, "code", index == 0 ? "none" : String.valueOf(code));
+            requestsByCode.compareAndSet(index, null, counter);
+        }
+        return counter;
+    }
+
+    @Override
+    public String description() {
+        return "Метрики запросов " + handler;
+    }
+}
@@ -0,0 +1,153 @@
+package http;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Настройки HttpTaskServer: порт, длина очереди входящих соединений (backlog)
+ * и режим исполнения обработчиков.
+ * <p>
+ * Режимы, отличные от {@link ExecutorMode#DISPATCHER}, вызывают менеджер из нескольких
+ * потоков одновременно, поэтому требуют потокобезопасного менеджера
+ * (например, {@link service.ConcurrentTaskManager}).
+ */
+public class ServerConfig {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_BACKLOG = 0;
+
+    public enum ExecutorMode {
+        // Все запросы на единственном потоке-диспетчере HttpServer
+        DISPATCHER,
+        // Фиксированный пул из threads потоков
+        FIXED,
+        // ForkJoinPool с перехватом работы, параллелизм threads
+        WORK_STEALING,
+        // Поток на запрос: виртуальный, если JVM их поддерживает, иначе кэширующий пул
+        THREAD_PER_REQUEST
+    }
+
+    public enum JsonMode {
+        // Компактный JSON без пробелов через ручные адаптеры задач — режим по умолчанию
+        COMPACT,
+        // JSON с отступами для отладки
+        PRETTY
+    }
+
+    private final int port;
+    private final int backlog;
+    private final ExecutorMode executorMode;
+    private final int threads;
+    private final JsonMode jsonMode;
+    // Большие коллекции пишутся в ответ по мере обхода (chunked), а не собираются целиком в памяти
+    private final boolean streamCollections;
+
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int threads) {
+        this(port, backlog, executorMode, threads, JsonMode.COMPACT);
+    }
+
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int threads, JsonMode jsonMode) {
+        this(port, backlog, executorMode, threads, jsonMode, true);
+    }
+
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int threads, JsonMode jsonMode,
+                        boolean streamCollections) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Неверный порт: " + port);
+        }
+        this.port = port;
+        this.backlog = Math.max(0, backlog);
+        this.executorMode = executorMode;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.jsonMode = jsonMode;
+        this.streamCollections = streamCollections;
+    }
+
+    public static ServerConfig defaults() {
+        return new ServerConfig(DEFAULT_PORT, DEFAULT_BACKLOG, ExecutorMode.DISPATCHER, 0);
+    }
+
+    /**
+     * Настройки из свойств {@code http.port}, {@code http.backlog}, {@code http.executor},
+     * {@code http.threads}, {@code http.json} и {@code http.stream}; отсутствующие свойства берутся по умолчанию.
+     */
+    public static ServerConfig fromProperties(Properties properties) {
+        return new ServerConfig(
+                Integer.parseInt(properties.getProperty("http.port", String.valueOf(DEFAULT_PORT))),
+                Integer.parseInt(properties.getProperty("http.backlog", String.valueOf(DEFAULT_BACKLOG))),
+                ExecutorMode.valueOf(properties.getProperty("http.executor", ExecutorMode.DISPATCHER.name())),
+                Integer.parseInt(properties.getProperty("http.threads", "0")),
+                JsonMode.valueOf(properties.getProperty("http.json", JsonMode.COMPACT.name())),
+                Boolean.parseBoolean(properties.getProperty("http.stream", "true")));
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public JsonMode getJsonMode() {
+        return jsonMode;
+    }
+
+    public boolean isStreamCollections() {
+        return streamCollections;
+    }
+
+    // Исполнитель для HttpServer.setExecutor; null — обработка на потоке-диспетчере
+    ExecutorService createExecutor() {
+        switch (executorMode) {
+            case FIXED:
+                return Executors.newFixedThreadPool(threads, namedThreads("http-worker"));
+            case WORK_STEALING:
+                return Executors.newWorkStealingPool(threads);
+            case THREAD_PER_REQUEST:
+                return threadPerRequestExecutor();
+            default:
+                return null;
+        }
+    }
+
+    // Виртуальные потоки появились в Java 21; на более старой JVM используем кэширующий пул
+    private static ExecutorService threadPerRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(namedThreads("http-request"));
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ServerConfig{" +
+                "port=" + port +
+                ", backlog=" + backlog +
+                ", executorMode=" + executorMode +
+                ", threads=" + threads +
+                ", jsonMode=" + jsonMode +
+                ", streamCollections=" + streamCollections +
+                '}';
+    }
+}
@@ -0,0 +1,173 @@
+package http;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ручной адаптер Gson для Task, Epic и Subtask вместо рефлексии.
+ * <p>
+ * Формат совпадает с рефлективным: те же имена полей, продолжительность в минутах,
+ * время в ISO_LOCAL_DATE_TIME, null-поля не выводятся. Неизвестные поля при чтении пропускаются.
+ */
+public class TaskAdapter<T extends Task> extends TypeAdapter<T> {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final Status[] STATUSES = Status.values();
+
+    private final Class<T> type;
+
+    public TaskAdapter(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (task instanceof Epic) {
+            Epic epic = (Epic) task;
+            out.name("subtaskIds").beginArray();
+            try {
+                epic.forEachSubtaskId(subtaskId -> writeId(out, subtaskId));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.endArray();
+            if (epic.getEndTime() != null) {
+                out.name("endTime").value(epic.getEndTime().format(FORMATTER));
+            }
+        } else if (task instanceof Subtask) {
+            out.name("epicId").value(((Subtask) task).getEpicId());
+        }
+        if (task.getTitle() != null) {
+            out.name("title").value(task.getTitle());
+        }
+        if (task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        out.name("id").value(task.getId());
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        out.name("duration").value(task.getDuration().toMinutes());
+        if (task.getStartTime() != null) {
+            out.name("startTime").value(task.getStartTime().format(FORMATTER));
+        }
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String title = null;
+        String description = null;
+        int id = 0;
+        Status status = null;
+        Duration duration = Duration.ZERO;
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+        int epicId = 0;
+        List<Integer> subtaskIds = new ArrayList<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "title":
+                    title = in.nextString();
+                    break;
+                case "description":
+                    description = in.nextString();
+                    break;
+                case "id":
+                    id = in.nextInt();
+                    break;
+                case "status":
+                    status = readStatus(in);
+                    break;
+                case "duration":
+                    duration = Duration.ofMinutes(in.nextLong());
+                    break;
+                case "startTime":
+                    startTime = readTime(in);
+                    break;
+                case "endTime":
+                    endTime = readTime(in);
+                    break;
+                case "epicId":
+                    epicId = in.nextInt();
+                    break;
+                case "subtaskIds":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        subtaskIds.add(in.nextInt());
+                    }
+                    in.endArray();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Task task;
+        if (type == Epic.class) {
+            Epic epic = new Epic(title, description, id, status, duration, startTime, endTime);
+            subtaskIds.forEach(epic::addSubtaskId);
+            task = epic;
+        } else if (type == Subtask.class) {
+            task = new Subtask(title, description, id, status, epicId, duration, startTime);
+        } else {
+            task = new Task(title, description, id, status, duration, startTime);
+        }
+        return type.cast(task);
+    }
+
+    // IntConsumer не пропускает IOException — заворачиваем и разворачиваем в write
+    private static void writeId(JsonWriter out, int id) {
+        try {
+            out.value(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Неизвестный статус дает null, как у рефлективного адаптера перечислений Gson, а не исключение
+    private static Status readStatus(JsonReader in) throws IOException {
+        String value = in.nextString();
+        for (Status status : STATUSES) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime readTime(JsonReader in) throws IOException {
+        String value = in.nextString();
+        return value.isEmpty() ? null : LocalDateTime.parse(value, FORMATTER);
+    }
+}
@@ -1,24 +1,76 @@
 package http.handler;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import model.Task;
+import model.enums.Status;
+import model.enums.TaskType;
 import service.ManagerValidateException;
 import service.NotFoundException;
+import service.Page;
+import service.TaskQuery;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    // Заголовок ответа с курсором следующей страницы; отсутствует на последней странице
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Set<String> QUERY_PARAMETERS = Set.of("limit", "after", "status", "type", "from", "to");
+
     protected final Gson gson;
+    // Отдавать коллекции потоком (chunked) вместо буферизации всего ответа
+    protected final boolean streamCollections;
+
+    // Источник элементов коллекции: обход без копирования, например TaskManager::forEachTask
+    @FunctionalInterface
+    protected interface CollectionSource<T> {
+        void forEach(Consumer<T> action);
+    }
+
+    // Постраничная выборка менеджера, например TaskManager::findTasks
+    @FunctionalInterface
+    protected interface PageSource<T extends Task> {
+        Page<T> find(TaskQuery query);
+    }
 
     // Абстрактный метод, который должны реализовать подклассы
     @Override
     public abstract void handle(HttpExchange exchange) throws IOException;
 
     public BaseHttpHandler(Gson gson) {
+        this(gson, false);
+    }
+
+    public BaseHttpHandler(Gson gson, boolean streamCollections) {
         this.gson = gson;
+        this.streamCollections = streamCollections;
     }
 
     protected void sendText(HttpExchange exchange, String text) throws IOException {
@@ -29,6 +81,168 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    // JSON пишется в ByteArrayOutputStream без промежуточной String: буфер нужен, чтобы знать Content-Length
+    // до отправки заголовков. writeTo отдает внутренний массив буфера без копии toByteArray, но сам буфер —
+    // промежуточный byte[] размером с ответ; большие коллекции отдает потоково sendCollection
+    protected void sendJson(HttpExchange exchange, Object value) throws IOException {
+        sendJson(exchange, 200, value);
+    }
+
+    protected void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+            gson.toJson(value, writer);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, buffer.size());
+        buffer.writeTo(exchange.getResponseBody());
+        exchange.close();
+    }
+
+    /**
+     * Отдает коллекцию JSON-массивом. В потоковом режиме элементы пишутся через JsonWriter
+     * прямо в тело ответа по мере обхода source, без промежуточного списка и длины ответа
+     * (chunked transfer encoding); иначе коллекция собирается и отдается через {@link #sendJson}.
+     */
+    protected <T> void sendCollection(HttpExchange exchange, CollectionSource<T> source) throws IOException {
+        if (!streamCollections) {
+            List<T> items = new ArrayList<>();
+            source.forEach(items::add);
+            sendJson(exchange, items);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192))) {
+            writer.beginArray();
+            try {
+                source.forEach(item -> writeElement(writer, item));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.endArray();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void writeElement(JsonWriter writer, Object item) {
+        try {
+            gson.toJson(item, item.getClass(), writer);
+        } catch (JsonIOException e) {
+            throw new UncheckedIOException(e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e));
+        }
+    }
+
+    /**
+     * Отдает страницу, если в строке запроса есть параметры выборки
+     * {@code limit, after, status, type, from, to}; курсор следующей страницы — в заголовке
+     * {@link #NEXT_CURSOR_HEADER}. Неверные параметры — ответ 400.
+     * <p>
+     * Без {@code limit} страница ограничена {@link TaskQuery#DEFAULT_LIMIT} элементами — в том числе для
+     * {@code ?status=}: остальное клиент забирает по курсору.
+     *
+     * @return false, если параметров выборки нет и нужно отдать всю коллекцию
+     */
+    protected <T extends Task> boolean sendPageIfRequested(HttpExchange exchange, PageSource<T> source)
+            throws IOException {
+        Map<String, String> parameters = queryParameters(exchange);
+        if (parameters.isEmpty()) {
+            return false;
+        }
+        Page<T> page;
+        try {
+            page = source.find(toTaskQuery(parameters));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            sendBadRequest(exchange);
+            return true;
+        }
+        if (page.hasNext()) {
+            exchange.getResponseHeaders().add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        sendJson(exchange, page.getItems());
+        return true;
+    }
+
+    // Количество задач в каждом статусе: {"NEW": n, "IN_PROGRESS": n, "DONE": n}
+    protected void sendStatusCounts(HttpExchange exchange, ToIntFunction<Status> counter) throws IOException {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counts.put(status, counter.applyAsInt(status));
+        }
+        sendJson(exchange, counts);
+    }
+
+    // Известные параметры выборки из строки запроса; прочие параметры игнорируются
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            if (QUERY_PARAMETERS.contains(name)) {
+                String value = separator < 0 ? "" : pair.substring(separator + 1);
+                parameters.put(name, URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    // Значение параметра строки запроса или null, если его нет
+    protected static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && name.equals(pair.substring(0, separator))) {
+                return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Момент «не раньше» для автоматического размещения: POST с параметром {@code place=auto}
+     * и необязательным {@code from} (по умолчанию — текущее время).
+     *
+     * @return null, если размещение не запрошено
+     */
+    protected static LocalDateTime placementRequest(HttpExchange exchange) {
+        if (!"auto".equals(queryParameter(exchange, "place"))) {
+            return null;
+        }
+        String from = queryParameter(exchange, "from");
+        return from != null ? LocalDateTime.parse(from) : LocalDateTime.now();
+    }
+
+    // Размещать можно только задачу с положительной длительностью
+    protected static boolean isPlaceable(Task task) {
+        Duration duration = task.getDuration();
+        return duration != null && !duration.isNegative() && !duration.isZero();
+    }
+
+    private static TaskQuery toTaskQuery(Map<String, String> parameters) {
+        String limit = parameters.get("limit");
+        String status = parameters.get("status");
+        String type = parameters.get("type");
+        String from = parameters.get("from");
+        String to = parameters.get("to");
+        return new TaskQuery(
+                status != null ? Status.valueOf(status) : null,
+                type != null ? TaskType.valueOf(type) : null,
+                from != null ? LocalDateTime.parse(from) : null,
+                to != null ? LocalDateTime.parse(to) : null,
+                parameters.get("after"),
+                limit != null ? Integer.parseInt(limit) : TaskQuery.DEFAULT_LIMIT);
+    }
+
     protected void sendSuccess(HttpExchange exchange) throws IOException {
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
         exchange.sendResponseHeaders(200, 0);
@@ -41,6 +255,12 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    protected void sendBadRequest(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(400, 0);
+        exchange.close();
+    }
+
     protected void sendNotFound(HttpExchange exchange) throws IOException {
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
         exchange.sendResponseHeaders(404, 0);
@@ -64,6 +284,11 @@ public abstract class BaseHttpHandler implements HttpHandler {
     }
 
     protected void handleExceptions(HttpExchange exchange, Exception e) throws IOException {
+        // Ответ уже начат (ошибка посреди потоковой выдачи): код не изменить, только оборвать
+        if (exchange.getResponseCode() != -1) {
+            exchange.close();
+            return;
+        }
         if (e instanceof NotFoundException) {
             sendNotFound(exchange);
         } else if (e instanceof ManagerValidateException) {
@@ -75,6 +300,25 @@ public abstract class BaseHttpHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Читает тело запроса — JSON-массив — по одному элементу через JsonReader, не собирая тело в строку.
+     * Тело, не являющееся массивом, дает JsonSyntaxException, как и неверный элемент.
+     */
+    protected <T> List<T> readJsonArray(HttpExchange exchange, Class<T> clazz) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (JsonReader reader = gson.newJsonReader(new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), 8192))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                items.add(gson.fromJson(reader, clazz));
+            }
+            reader.endArray();
+        } catch (IllegalStateException | MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        }
+        return items;
+    }
+
     protected String readBody(HttpExchange exchange) throws IOException {
         return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
     }
@@ -13,7 +13,11 @@ public class EpicHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public EpicHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, false);
+    }
+
+    public EpicHandler(TaskManager taskManager, Gson gson, boolean streamCollections) {
+        super(gson, streamCollections);
         this.taskManager = taskManager;
     }
 
@@ -44,9 +48,13 @@ public class EpicHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String[] pathParts) throws IOException {
         if (pathParts.length == 2) {
-            // GET /epics
-            List<Epic> epics = taskManager.getAllEpics();
-            sendText(exchange, gson.toJson(epics));
+            // GET /epics, постранично — GET /epics?limit=&after=&status=&type=&from=&to=
+            if (!sendPageIfRequested(exchange, taskManager::findEpics)) {
+                sendCollection(exchange, taskManager::forEachEpic);
+            }
+        } else if (pathParts.length == 3 && "counts".equals(pathParts[2])) {
+            // GET /epics/counts — количество эпиков по статусам
+            sendStatusCounts(exchange, taskManager::countEpicsByStatus);
         } else if (pathParts.length == 3) {
             // GET /epics/{id}
             int id = parsePathId(pathParts[2]);
@@ -56,7 +64,7 @@ public class EpicHandler extends BaseHttpHandler {
             }
             // Используем новый метод, который бросает исключение
             Epic epic = taskManager.getEpicOrThrow(id);
-            sendText(exchange, gson.toJson(epic));
+            sendJson(exchange, epic);
 
         } else if (pathParts.length == 4 && "subtasks".equals(pathParts[3])) {
             // GET /epics/{id}/subtasks
@@ -66,7 +74,7 @@ public class EpicHandler extends BaseHttpHandler {
                 return;
             }
             List<Subtask> subtasks = taskManager.getSubtasksByEpicId(id);
-            sendText(exchange, gson.toJson(subtasks));
+            sendJson(exchange, subtasks);
         } else {
             sendNotFound(exchange);
         }
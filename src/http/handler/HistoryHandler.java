@@ -20,8 +20,16 @@ public class HistoryHandler extends BaseHttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> history = taskManager.getHistory();
-                sendText(exchange, gson.toJson(history));
+                // GET /history?limit=N — только N последних просмотров
+                String limit = queryParameter(exchange, "limit");
+                List<Task> history;
+                try {
+                    history = limit != null ? taskManager.getHistory(Integer.parseInt(limit)) : taskManager.getHistory();
+                } catch (NumberFormatException e) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                sendJson(exchange, history);
             } else {
                 sendNotFound(exchange);
             }
@@ -4,24 +4,38 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import model.Task;
 import service.TaskManager;
+import service.TimeSlot;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class PrioritizedHandler extends BaseHttpHandler {
+    private static final int DEFAULT_FREE_SLOTS = 10;
+
     private final TaskManager taskManager;
 
     public PrioritizedHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, false);
+    }
+
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, boolean streamCollections) {
+        super(gson, streamCollections);
         this.taskManager = taskManager;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-                sendText(exchange, gson.toJson(prioritizedTasks));
+            String[] pathParts = exchange.getRequestURI().getPath().split("/");
+            if ("GET".equals(exchange.getRequestMethod()) && pathParts.length == 3 && "free".equals(pathParts[2])) {
+                handleFreeSlots(exchange);
+            } else if ("GET".equals(exchange.getRequestMethod()) && pathParts.length == 2) {
+                if (!sendPageIfRequested(exchange, taskManager::findPrioritized)) {
+                    sendCollection(exchange, taskManager::forEachPrioritized);
+                }
             } else {
                 sendNotFound(exchange);
             }
@@ -29,4 +43,27 @@ public class PrioritizedHandler extends BaseHttpHandler {
             handleExceptions(exchange, e);
         }
     }
+
+    // GET /prioritized/free?duration=&from=&limit= — свободные промежутки; duration в минутах,
+    // from по умолчанию — текущее время, limit — 10
+    private void handleFreeSlots(HttpExchange exchange) throws IOException {
+        List<TimeSlot> slots;
+        try {
+            String duration = queryParameter(exchange, "duration");
+            String from = queryParameter(exchange, "from");
+            String limit = queryParameter(exchange, "limit");
+            if (duration == null) {
+                sendBadRequest(exchange);
+                return;
+            }
+            slots = taskManager.findFreeSlots(
+                    from != null ? LocalDateTime.parse(from) : LocalDateTime.now(),
+                    Duration.ofMinutes(Long.parseLong(duration)),
+                    limit != null ? Integer.parseInt(limit) : DEFAULT_FREE_SLOTS);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            sendBadRequest(exchange);
+            return;
+        }
+        sendJson(exchange, slots);
+    }
 }
\ No newline at end of file
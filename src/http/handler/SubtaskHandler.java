@@ -6,13 +6,19 @@ import model.Subtask;
 import service.TaskManager;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class SubtaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public SubtaskHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, false);
+    }
+
+    public SubtaskHandler(TaskManager taskManager, Gson gson, boolean streamCollections) {
+        super(gson, streamCollections);
         this.taskManager = taskManager;
     }
 
@@ -28,7 +34,11 @@ public class SubtaskHandler extends BaseHttpHandler {
                     handleGet(exchange, pathParts);
                     break;
                 case "POST":
-                    handlePost(exchange);
+                    if (pathParts.length == 3 && "batch".equals(pathParts[2])) {
+                        handleBatch(exchange);
+                    } else {
+                        handlePost(exchange);
+                    }
                     break;
                 case "DELETE":
                     handleDelete(exchange, pathParts);
@@ -43,9 +53,13 @@ public class SubtaskHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String[] pathParts) throws IOException {
         if (pathParts.length == 2) {
-            // GET /subtasks
-            List<Subtask> subtasks = taskManager.getAllSubtasks();
-            sendText(exchange, gson.toJson(subtasks));
+            // GET /subtasks, постранично — GET /subtasks?limit=&after=&status=&type=&from=&to=
+            if (!sendPageIfRequested(exchange, taskManager::findSubtasks)) {
+                sendCollection(exchange, taskManager::forEachSubtask);
+            }
+        } else if (pathParts.length == 3 && "counts".equals(pathParts[2])) {
+            // GET /subtasks/counts — количество подзадач по статусам
+            sendStatusCounts(exchange, taskManager::countSubtasksByStatus);
         } else if (pathParts.length == 3) {
             // GET /subtasks/{id}
             int id = parsePathId(pathParts[2]);
@@ -56,7 +70,7 @@ public class SubtaskHandler extends BaseHttpHandler {
 
             // Используем новый метод, который бросает исключение
             Subtask subtask = taskManager.getSubtaskOrThrow(id);
-            sendText(exchange, gson.toJson(subtask));
+            sendJson(exchange, subtask);
         } else {
             sendNotFound(exchange);
         }
@@ -67,6 +81,22 @@ public class SubtaskHandler extends BaseHttpHandler {
         Subtask subtask = parseBody(body, Subtask.class);
 
         if (subtask.getId() == 0) {
+            LocalDateTime notBefore;
+            try {
+                notBefore = placementRequest(exchange);
+            } catch (DateTimeException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (notBefore != null) {
+                // POST /subtasks?place=auto&from= — время начала назначается по первому свободному промежутку
+                if (!isPlaceable(subtask)) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                sendJson(exchange, 201, taskManager.placeSubtask(subtask, notBefore));
+                return;
+            }
             // Создание новой подзадачи
             taskManager.createSubtask(subtask);
             sendCreated(exchange);
@@ -77,6 +107,18 @@ public class SubtaskHandler extends BaseHttpHandler {
         }
     }
 
+    // POST /subtasks/batch — JSON-массив создается одним пакетом с новыми id (id в элементах не учитываются);
+    // в ответ 201 и id созданных в порядке массива
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<Subtask> batch = readJsonArray(exchange, Subtask.class);
+        List<Subtask> created = taskManager.createSubtasksBulk(batch);
+        int[] ids = new int[created.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = created.get(i).getId();
+        }
+        sendJson(exchange, 201, ids);
+    }
+
     private void handleDelete(HttpExchange exchange, String[] pathParts) throws IOException {
         if (pathParts.length == 3) {
             int id = parsePathId(pathParts[2]);
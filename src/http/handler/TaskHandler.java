@@ -6,13 +6,19 @@ import model.Task;
 import service.TaskManager;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class TaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public TaskHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+        this(taskManager, gson, false);
+    }
+
+    public TaskHandler(TaskManager taskManager, Gson gson, boolean streamCollections) {
+        super(gson, streamCollections);
         this.taskManager = taskManager;
     }
 
@@ -28,7 +34,11 @@ public class TaskHandler extends BaseHttpHandler {
                     handleGet(exchange, pathParts);
                     break;
                 case "POST":
-                    handlePost(exchange);
+                    if (pathParts.length == 3 && "batch".equals(pathParts[2])) {
+                        handleBatch(exchange);
+                    } else {
+                        handlePost(exchange);
+                    }
                     break;
                 case "DELETE":
                     handleDelete(exchange, pathParts);
@@ -43,9 +53,13 @@ public class TaskHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String[] pathParts) throws IOException {
         if (pathParts.length == 2) {
-            // GET /tasks
-            List<Task> tasks = taskManager.getAllTasks();
-            sendText(exchange, gson.toJson(tasks));
+            // GET /tasks, постранично — GET /tasks?limit=&after=&status=&type=&from=&to=
+            if (!sendPageIfRequested(exchange, taskManager::findTasks)) {
+                sendCollection(exchange, taskManager::forEachTask);
+            }
+        } else if (pathParts.length == 3 && "counts".equals(pathParts[2])) {
+            // GET /tasks/counts — количество задач по статусам
+            sendStatusCounts(exchange, taskManager::countTasksByStatus);
         } else if (pathParts.length == 3) {
             // GET /tasks/{id}
             int id = parsePathId(pathParts[2]);
@@ -56,7 +70,7 @@ public class TaskHandler extends BaseHttpHandler {
 
             // Используем новый метод, который бросает исключение
             Task task = taskManager.getTaskOrThrow(id);
-            sendText(exchange, gson.toJson(task));
+            sendJson(exchange, task);
         } else {
             sendNotFound(exchange);
         }
@@ -67,8 +81,24 @@ public class TaskHandler extends BaseHttpHandler {
         Task task = parseBody(body, Task.class);
 
         if (task.getId() == 0) {
+            LocalDateTime notBefore;
+            try {
+                notBefore = placementRequest(exchange);
+            } catch (DateTimeException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (notBefore != null) {
+                // POST /tasks?place=auto&from= — время начала назначается по первому свободному промежутку
+                if (!isPlaceable(task)) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                sendJson(exchange, 201, taskManager.placeTask(task, notBefore));
+                return;
+            }
             // Создание новой задачи
-            Task createdTask = taskManager.createTask(task);
+            taskManager.createTask(task);
             sendCreated(exchange);
         } else {
             // Обновление существующей задачи
@@ -77,6 +107,18 @@ public class TaskHandler extends BaseHttpHandler {
         }
     }
 
+    // POST /tasks/batch — JSON-массив создается одним пакетом с новыми id (id в элементах не учитываются);
+    // в ответ 201 и id созданных в порядке массива
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<Task> batch = readJsonArray(exchange, Task.class);
+        List<Task> created = taskManager.createTasksBulk(batch);
+        int[] ids = new int[created.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = created.get(i).getId();
+        }
+        sendJson(exchange, 201, ids);
+    }
+
     private void handleDelete(HttpExchange exchange, String[] pathParts) throws IOException {
         if (pathParts.length == 3) {
             int id = parsePathId(pathParts[2]);
@@ -0,0 +1,166 @@
+package metrics;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Реестр метрик с выдачей в текстовом формате Prometheus (версия 0.0.4).
+ * <p>
+ * Метрики регистрируются по имени и набору меток; повторная регистрация с теми же именем и метками
+ * возвращает уже существующий экземпляр, поэтому компоненты получают метрики при создании и дальше
+ * пишут в них без обращений к реестру. Метки передаются парами: {@code "handler", "/tasks", "code", "200"}.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    // Метрики с одним именем: общий HELP/TYPE и экземпляры по строке меток
+    private static final class Family {
+        final Type type;
+        final String help;
+        final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    // Общий реестр процесса: его наполняют менеджеры и сервер, и его же отдает /metrics
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    public Timer timer(String name, String help, String... labels) {
+        return (Timer) register(name, help, Type.HISTOGRAM, labels, Timer::new);
+    }
+
+    // Значение вычисляется при каждой выдаче метрик; повторная регистрация заменяет источник значения
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE, labels).children.put(formatLabels(labels), value);
+    }
+
+    private Object register(String name, String help, Type type, String[] labels, Supplier<Object> factory) {
+        return family(name, help, type, labels).children.computeIfAbsent(formatLabels(labels), key -> factory.get());
+    }
+
+    private Family family(String name, String help, Type type, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами имя-значение: " + name);
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(type, help));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована как " + family.type.text);
+        }
+        return family;
+    }
+
+    // Выдача всех метрик в текстовом формате Prometheus
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type.text).append('\n');
+            for (Map.Entry<String, Object> child : family.children.entrySet()) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                switch (family.type) {
+                    case COUNTER:
+                        sample(out, name, labels, null, Long.toString(((Counter) metric).get()));
+                        break;
+                    case GAUGE:
+                        sample(out, name, labels, null, formatDouble(((DoubleSupplier) metric).getAsDouble()));
+                        break;
+                    default:
+                        writeHistogram(out, name, labels, (Timer) metric);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, Timer timer) {
+        long[] counts = timer.bucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = i < Timer.BUCKET_BOUNDS_NANOS.length
+                    ? BigDecimal.valueOf(Timer.BUCKET_BOUNDS_NANOS[i], 9).stripTrailingZeros().toPlainString()
+                    : "+Inf";
+            sample(out, name + "_bucket", labels, "le=\"" + bound + "\"", Long.toString(cumulative));
+        }
+        sample(out, name + "_sum", labels, null, formatDouble(timer.getSumNanos() / 1e9));
+        sample(out, name + "_count", labels, null, Long.toString(cumulative));
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extraLabel, String value) {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String formatLabels(String[] labels) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    text.append('\\').append(c);
+                } else if (c == '\n') {
+                    text.append("\\n");
+                } else {
+                    text.append(c);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+}
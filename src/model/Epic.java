@@ -2,52 +2,83 @@ package model;
 
 import model.enums.Status;
 import model.enums.TaskType;
-import java.util.ArrayList;
+import util.IntHashMap;
+import util.IntLinkedSet;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
-    private ArrayList<Integer> subtaskIds;
+    // id подзадач в порядке добавления, без упаковки в Integer; удаление O(1)
+    private IntLinkedSet subtaskIds;
     private LocalDateTime endTime;
 
+    // Агрегаты по подзадачам поддерживаются инкрементально и не сериализуются
+    private transient Aggregates aggregates;
+
     public Epic(String title, String description) {
         super(title, description, Status.NEW, Duration.ZERO, null);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntLinkedSet();
         this.endTime = null;
     }
 
     public Epic(String title, String description, int id, Status status) {
         super(title, description, id, status, Duration.ZERO, null);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntLinkedSet();
         this.endTime = null;
     }
 
     public Epic(String title, String description, int id, Status status,
                 Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
         super(title, description, id, status, duration, startTime);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new IntLinkedSet();
         this.endTime = endTime;
     }
 
+    // Копия для чтения: список подзадач копируется, агрегаты — нет, поэтому пересчитывать копию нельзя
+    public Epic(Epic other) {
+        super(other.title, other.description, other.id, other.status, other.duration, other.startTime);
+        this.subtaskIds = new IntLinkedSet(other.subtaskIds.size());
+        other.subtaskIds.forEach(this.subtaskIds::add);
+        this.endTime = other.endTime;
+    }
+
     public ArrayList<Integer> getSubtaskIds() {
-        return new ArrayList<>(subtaskIds);
+        ArrayList<Integer> ids = new ArrayList<>(subtaskIds.size());
+        subtaskIds.forEach(ids::add);
+        return ids;
+    }
+
+    // Обход id подзадач без копирования и упаковки
+    public void forEachSubtaskId(IntConsumer action) {
+        subtaskIds.forEach(action);
+    }
+
+    public int getSubtaskCount() {
+        return subtaskIds.size();
     }
 
     public void addSubtaskId(int subtaskId) {
-        if (!subtaskIds.contains(subtaskId)) {
-            subtaskIds.add(subtaskId);
-        }
+        subtaskIds.add(subtaskId);
+    }
+
+    // Регистрирует подзадачу вместе с ее вкладом в агрегаты; повторный вызов заменяет прежний вклад
+    public void addSubtask(Subtask subtask) {
+        subtaskIds.add(subtask.getId());
+        aggregates().put(subtask);
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove(Integer.valueOf(subtaskId));
+        subtaskIds.remove(subtaskId);
+        aggregates().remove(subtaskId);
     }
 
     public void clearSubtasks() {
         subtaskIds.clear();
+        aggregates = null;
     }
 
     @Override
@@ -57,35 +88,110 @@ public class Epic extends Task {
 
     public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
+        invalidateTimeBounds();
+    }
+
+    // Статус по счетчикам подзадач: O(1)
+    public Status calculateStatus() {
+        Aggregates stats = aggregates();
+        if (stats.count == 0) {
+            return Status.NEW;
+        }
+        if (stats.statusCounts[Status.DONE.ordinal()] == stats.count) {
+            return Status.DONE;
+        }
+        if (stats.statusCounts[Status.NEW.ordinal()] == stats.count) {
+            return Status.NEW;
+        }
+        return Status.IN_PROGRESS;
     }
 
-    public void calculateTimeFields(List<Subtask> subtasks) {
-        if (subtasks == null || subtasks.isEmpty()) {
+    // Время эпика по агрегатам подзадач: O(log k)
+    public void calculateTimeFields() {
+        Aggregates stats = aggregates();
+        if (stats.count == 0) {
             this.setStartTime(null);
             this.setDuration(Duration.ZERO);
             this.endTime = null;
+            invalidateTimeBounds();
             return;
         }
 
-        LocalDateTime earliestStart = subtasks.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-
-        Duration totalDuration = subtasks.stream()
-                .map(Subtask::getDuration)
-                .reduce(Duration.ZERO, Duration::plus);
-
-        LocalDateTime latestEnd = subtasks.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
-        this.setStartTime(earliestStart);
-        this.setDuration(totalDuration);
-        this.endTime = latestEnd;
+        this.setStartTime(stats.startTimes.isEmpty() ? null : stats.startTimes.firstKey());
+        this.setDuration(stats.totalDuration);
+        this.endTime = stats.endTimes.isEmpty() ? null : stats.endTimes.lastKey();
+        invalidateTimeBounds();
+    }
+
+    private Aggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = new Aggregates();
+        }
+        return aggregates;
+    }
+
+    // Вклад одной подзадачи, запомненный на момент регистрации
+    private static final class Contribution {
+        final Status status;
+        final Duration duration;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.duration = subtask.getDuration();
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+        }
+    }
+
+    private static final class Aggregates {
+        final IntHashMap<Contribution> contributions = new IntHashMap<>(0);
+        final int[] statusCounts = new int[Status.values().length];
+        // Мультимножества времен начала и окончания: время -> количество подзадач
+        final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+        final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+        Duration totalDuration = Duration.ZERO;
+        int count;
+
+        void put(Subtask subtask) {
+            remove(subtask.getId());
+            Contribution contribution = new Contribution(subtask);
+            contributions.put(subtask.getId(), contribution);
+            count++;
+            if (contribution.status != null) {
+                statusCounts[contribution.status.ordinal()]++;
+            }
+            totalDuration = totalDuration.plus(contribution.duration);
+            increment(startTimes, contribution.startTime);
+            increment(endTimes, contribution.endTime);
+        }
+
+        void remove(int subtaskId) {
+            Contribution contribution = contributions.remove(subtaskId);
+            if (contribution == null) {
+                return;
+            }
+            count--;
+            if (contribution.status != null) {
+                statusCounts[contribution.status.ordinal()]--;
+            }
+            totalDuration = totalDuration.minus(contribution.duration);
+            decrement(startTimes, contribution.startTime);
+            decrement(endTimes, contribution.endTime);
+        }
+
+        private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            if (time != null) {
+                times.merge(time, 1, Integer::sum);
+            }
+        }
+
+        private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            if (time != null) {
+                times.computeIfPresent(time, (key, value) -> value > 1 ? value - 1 : null);
+            }
+        }
     }
 
     @Override
@@ -6,8 +6,12 @@ import java.util.Objects;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 public class Task {
+    // Минута эпохи (UTC) для задачи без времени начала
+    public static final long NO_TIME = Long.MIN_VALUE;
+
     protected String title;
     protected String description;
     protected int id;
@@ -16,6 +20,12 @@ public class Task {
     protected Duration duration;
     protected LocalDateTime startTime;
 
+    // Границы интервала, вычисляются лениво и сбрасываются при изменении начала или длительности.
+    // Лениво, а не в конструкторе: Gson создает задачу без конструктора. Границы в минутах публикуются
+    // одним неизменяемым объектом через volatile, так что читатель видит либо null, либо согласованные значения
+    private transient volatile LocalDateTime cachedEndTime;
+    private transient volatile TimeBounds bounds;
+
     public Task(String title, String description, int id, Status status,
                 Duration duration, LocalDateTime startTime) {
         this.title = title;
@@ -90,6 +100,7 @@ public class Task {
 
     public void setDuration(Duration duration) {
         this.duration = duration != null ? duration : Duration.ZERO;
+        invalidateTimeBounds();
     }
 
     public LocalDateTime getStartTime() {
@@ -98,10 +109,78 @@ public class Task {
 
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        invalidateTimeBounds();
     }
 
     public LocalDateTime getEndTime() {
-        return startTime != null ? startTime.plus(duration) : null;
+        if (startTime == null) {
+            return null;
+        }
+        LocalDateTime end = cachedEndTime;
+        if (end == null) {
+            end = startTime.plus(duration);
+            cachedEndTime = end;
+        }
+        return end;
+    }
+
+    // Начало в минутах эпохи, округленное вниз; NO_TIME — времени нет
+    public long getStartMinute() {
+        return timeBounds().startMinute;
+    }
+
+    // Окончание в минутах эпохи, округленное вверх; NO_TIME — времени нет
+    public long getEndMinute() {
+        return timeBounds().endMinute;
+    }
+
+    // Начало и окончание кратны минуте — тогда сравнение минут точное
+    public boolean isMinuteAligned() {
+        return timeBounds().minuteAligned;
+    }
+
+    // Сбрасывает кэш границ; наследники вызывают его, меняя поля времени напрямую
+    protected void invalidateTimeBounds() {
+        cachedEndTime = null;
+        bounds = null;
+    }
+
+    // Гонка двух читателей безвредна: оба вычислят одинаковые границы
+    private TimeBounds timeBounds() {
+        TimeBounds cached = bounds;
+        if (cached == null) {
+            cached = TimeBounds.of(startTime, getEndTime());
+            bounds = cached;
+        }
+        return cached;
+    }
+
+    private static final class TimeBounds {
+        private static final TimeBounds NONE = new TimeBounds(NO_TIME, NO_TIME, true);
+
+        final long startMinute;
+        final long endMinute;
+        final boolean minuteAligned;
+
+        private TimeBounds(long startMinute, long endMinute, boolean minuteAligned) {
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+            this.minuteAligned = minuteAligned;
+        }
+
+        static TimeBounds of(LocalDateTime start, LocalDateTime end) {
+            if (start == null) {
+                return NONE;
+            }
+            if (end == null) {
+                end = start;
+            }
+            long startMinute = Math.floorDiv(start.toEpochSecond(ZoneOffset.UTC), 60);
+            long endFloor = Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC), 60);
+            boolean endAligned = end.getSecond() == 0 && end.getNano() == 0;
+            return new TimeBounds(startMinute, endAligned ? endFloor : endFloor + 1,
+                    endAligned && start.getSecond() == 0 && start.getNano() == 0);
+        }
     }
 
     public TaskType getType() {
@@ -0,0 +1,184 @@
+package service;
+
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Асинхронная запись истории: просмотр только публикуется в кольцевой буфер, а связный список
+ * истории меняет один поток-потребитель пачками.
+ * <p>
+ * Буфер — ограниченная очередь многих производителей и одного потребителя (по схеме Вьюкова):
+ * производитель занимает позицию CAS-ом хвоста и публикует ссылку на задачу через номер
+ * последовательности ячейки, без замков и без выделения памяти. Применение пачек выполняется
+ * под замком потребителя: его берут фоновый поток, чтение истории и удаление — перед ними
+ * буфер дочитывается, поэтому getHistory видит все завершенные просмотры, а удаление задачи
+ * не обгоняет ее более ранний просмотр.
+ * <p>
+ * Если буфер переполнен, производитель сам дочитывает его под замком — это ограничивает
+ * память ценой ожидания под перегрузкой, просмотры не теряются.
+ */
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+    // Пауза потребителя, когда буфер пуст
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final HistoryManager delegate;
+    private final Task[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Позиция чтения; меняется только под consumerLock
+    private long head;
+    private final ReentrantLock consumerLock = new ReentrantLock();
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public AsyncHistoryManager(HistoryManager delegate) {
+        this(delegate, DEFAULT_BUFFER_SIZE);
+    }
+
+    public AsyncHistoryManager(HistoryManager delegate, int bufferSize) {
+        if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки: " + bufferSize);
+        }
+        this.delegate = delegate;
+        this.buffer = new Task[bufferSize];
+        this.sequences = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.consumer = new Thread(this::consumeLoop, "history-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        while (!offer(task)) {
+            drain();
+        }
+    }
+
+    private boolean offer(Task task) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = task;
+                    // Запись номера последовательности публикует ссылку для потребителя
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Применяет все опубликованные просмотры; возвращает их количество
+    private int drain() {
+        consumerLock.lock();
+        try {
+            int applied = 0;
+            while (true) {
+                int index = (int) head & mask;
+                if (sequences.get(index) != head + 1) {
+                    return applied;
+                }
+                Task task = buffer[index];
+                buffer[index] = null;
+                sequences.set(index, head + buffer.length);
+                head++;
+                delegate.add(task);
+                applied++;
+            }
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        consumerLock.lock();
+        try {
+            drain();
+            delegate.remove(id);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        consumerLock.lock();
+        try {
+            drain();
+            return delegate.getHistory();
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        consumerLock.lock();
+        try {
+            drain();
+            return delegate.getHistory(limit);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        consumerLock.lock();
+        try {
+            drain();
+            return delegate.size();
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    // Останавливает потребителя и применяет оставшиеся просмотры
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
@@ -0,0 +1,363 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Двоичный формат снимка FileBackedTaskManager.
+ * <p>
+ * Заголовок: сигнатура {@code 0x89 'J' 'K' 'B'}, байт версии и количества задач, эпиков
+ * и подзадач (varint), по которым загрузчик заранее выделяет хранилища нужного размера.
+ * Далее идут три секции записей в том же порядке. Запись: id (varint), название и описание
+ * (длина + 1 в varint, 0 — null, затем байты UTF-8), порядковый номер статуса + 1, id эпика
+ * (только у подзадач), время начала и продолжительность в минутах.
+ * <p>
+ * Время начала хранится в минутах эпохи (UTC) со сдвигом на единицу, 0 — null.
+ * Младший бит отмечает наличие секунд: тогда следом записаны наносекунды внутри минуты.
+ * <p>
+ * Числа из файла проверяются до использования: количества записей и длины строк не могут превышать
+ * остаток файла, id — диапазон int. Поврежденный снимок дает ManagerSaveException, а не OOM
+ * или случайное исключение при выделении хранилищ.
+ */
+public final class BinarySnapshot {
+    private static final byte[] MAGIC = {(byte) 0x89, 'J', 'K', 'B'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    private static final long MAX_DURATION_MINUTES = Long.MAX_VALUE / 60;
+    // Минимальный размер записи: id, название, описание, статус, время и продолжительность по байту
+    private static final int MIN_RECORD_BYTES = 6;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshot() {
+    }
+
+    // Количество записей каждого типа из заголовка снимка
+    public static final class Header {
+        public final int tasks;
+        public final int epics;
+        public final int subtasks;
+
+        Header(int tasks, int epics, int subtasks) {
+            this.tasks = tasks;
+            this.epics = epics;
+            this.subtasks = subtasks;
+        }
+    }
+
+    // Двоичный ли снимок: определяется по сигнатуре в начале файла
+    public static boolean isBinary(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            if (head.length < MAGIC.length) {
+                return false;
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (head[i] != MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public static Header readHeader(Path path) throws IOException {
+        try (Input in = new Input(Files.newInputStream(path), Files.size(path))) {
+            return in.readHeader();
+        }
+    }
+
+    public static byte[] encode(Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks) {
+        Output out = new Output(32 + 48 * (tasks.size() + epics.size() + subtasks.size()));
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        out.writeVarLong(tasks.size());
+        out.writeVarLong(epics.size());
+        out.writeVarLong(subtasks.size());
+
+        for (Task task : tasks) {
+            writeRecord(out, task);
+            writeTime(out, task);
+        }
+        for (Epic epic : epics) {
+            writeRecord(out, epic);
+            writeTime(out, epic);
+        }
+        for (Subtask subtask : subtasks) {
+            writeRecord(out, subtask);
+            out.writeVarLong(subtask.getEpicId());
+            writeTime(out, subtask);
+        }
+        return out.toByteArray();
+    }
+
+    // Передает записи снимка по одной: сначала задачи, затем эпики, затем подзадачи
+    public static void read(Path path, Consumer<Task> consumer) throws IOException {
+        try (Input in = new Input(Files.newInputStream(path), Files.size(path))) {
+            Header header = in.readHeader();
+            for (int i = 0; i < header.tasks; i++) {
+                int id = in.readId();
+                String title = in.readString();
+                String description = in.readString();
+                Status status = in.readStatus();
+                LocalDateTime startTime = in.readTime();
+                Duration duration = in.readDuration();
+                consumer.accept(new Task(title, description, id, status, duration, startTime));
+            }
+            for (int i = 0; i < header.epics; i++) {
+                int id = in.readId();
+                String title = in.readString();
+                String description = in.readString();
+                Status status = in.readStatus();
+                LocalDateTime startTime = in.readTime();
+                Duration duration = in.readDuration();
+                consumer.accept(new Epic(title, description, id, status, duration, startTime, null));
+            }
+            for (int i = 0; i < header.subtasks; i++) {
+                int id = in.readId();
+                String title = in.readString();
+                String description = in.readString();
+                Status status = in.readStatus();
+                int epicId = in.readId();
+                LocalDateTime startTime = in.readTime();
+                Duration duration = in.readDuration();
+                consumer.accept(new Subtask(title, description, id, status, epicId, duration, startTime));
+            }
+        }
+    }
+
+    private static void writeRecord(Output out, Task task) {
+        out.writeVarLong(task.getId());
+        out.writeString(task.getTitle());
+        out.writeString(task.getDescription());
+        out.write(task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+    }
+
+    private static void writeTime(Output out, Task task) {
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime == null) {
+            out.writeVarLong(0);
+        } else {
+            long epochSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+            long epochMinute = Math.floorDiv(epochSecond, 60);
+            long nanosOfMinute = Math.floorMod(epochSecond, 60) * 1_000_000_000L + startTime.getNano();
+            int hasNanos = nanosOfMinute != 0 ? 1 : 0;
+            out.writeVarLong(((zigZag(epochMinute) << 1) | hasNanos) + 1);
+            if (hasNanos != 0) {
+                out.writeVarLong(nanosOfMinute);
+            }
+        }
+        out.writeVarLong(zigZag(task.getDuration().toMinutes()));
+    }
+
+    private static ManagerSaveException corrupted(String message) {
+        return new ManagerSaveException("Поврежденный двоичный снимок: " + message);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+        Output(int size) {
+            super(size);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    // Чтение из собственного буфера без синхронизации и проверок BufferedInputStream на каждый байт
+    private static final class Input implements AutoCloseable {
+        private final InputStream in;
+        private final long size;
+        private long fetched;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        Input(InputStream in, long size) {
+            this.in = in;
+            this.size = size;
+        }
+
+        // Сколько байт файла еще не прочитано, включая непрочитанную часть буфера
+        private long remaining() {
+            return size - fetched + (limit - position);
+        }
+
+        Header readHeader() throws IOException {
+            for (byte expected : MAGIC) {
+                if (readByte() != expected) {
+                    throw new IOException("Файл не является двоичным снимком задач");
+                }
+            }
+            int version = readByte() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+            int tasks = readCount();
+            int epics = readCount();
+            int subtasks = readCount();
+            // У подзадачи еще байт id эпика
+            if (MIN_RECORD_BYTES * ((long) tasks + epics + subtasks) + subtasks > remaining()) {
+                throw corrupted(String.format("%d задач, %d эпиков и %d подзадач не помещаются в остаток файла",
+                        tasks, epics, subtasks));
+            }
+            return new Header(tasks, epics, subtasks);
+        }
+
+        private int readCount() throws IOException {
+            long count = readVarLong();
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw corrupted("неверное количество записей " + count);
+            }
+            return (int) count;
+        }
+
+        int readId() throws IOException {
+            long id = readVarLong();
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw corrupted("неверный id " + id);
+            }
+            return (int) id;
+        }
+
+        Duration readDuration() throws IOException {
+            long minutes = unZigZag(readVarLong());
+            if (minutes < -MAX_DURATION_MINUTES || minutes > MAX_DURATION_MINUTES) {
+                throw corrupted("неверная продолжительность " + minutes);
+            }
+            return Duration.ofMinutes(minutes);
+        }
+
+        Status readStatus() throws IOException {
+            int ordinal = readByte() & 0xFF;
+            if (ordinal > STATUSES.length) {
+                throw corrupted("неизвестный статус " + (ordinal - 1));
+            }
+            return ordinal == 0 ? null : STATUSES[ordinal - 1];
+        }
+
+        LocalDateTime readTime() throws IOException {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            encoded--;
+            long epochMinute = unZigZag(encoded >>> 1);
+            long nanosOfMinute = (encoded & 1) != 0 ? readVarLong() : 0;
+            if (nanosOfMinute < 0 || nanosOfMinute >= NANOS_PER_MINUTE) {
+                throw corrupted("неверное время");
+            }
+            try {
+                long epochSecond = Math.multiplyExact(epochMinute, 60) + nanosOfMinute / 1_000_000_000L;
+                return LocalDateTime.ofEpochSecond(epochSecond, (int) (nanosOfMinute % 1_000_000_000L), ZoneOffset.UTC);
+            } catch (ArithmeticException | DateTimeException e) {
+                throw corrupted("время вне допустимого диапазона");
+            }
+        }
+
+        long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw corrupted("слишком длинное число");
+        }
+
+        String readString() throws IOException {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            if (encoded < 0 || encoded - 1 > Math.min(remaining(), Integer.MAX_VALUE - 8)) {
+                throw corrupted("длина строки " + (encoded - 1) + " больше остатка файла");
+            }
+            int length = (int) (encoded - 1);
+            ensure(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private byte readByte() throws IOException {
+            if (position == limit) {
+                ensure(1);
+            }
+            return buffer[position++];
+        }
+
+        // Гарантирует, что в буфере подряд лежат не менее count непрочитанных байт
+        private void ensure(int count) throws IOException {
+            if (limit - position >= count) {
+                return;
+            }
+            if (count > buffer.length) {
+                byte[] larger = new byte[Math.max(count, buffer.length * 2)];
+                System.arraycopy(buffer, position, larger, 0, limit - position);
+                buffer = larger;
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+            }
+            limit -= position;
+            position = 0;
+            while (limit < count) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    throw new EOFException("Двоичный снимок обрезан");
+                }
+                limit += read;
+                fetched += read;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import model.enums.TaskType;
+import util.IntHashMap;
+import util.IntList;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Компактное колоночное хранилище задач: id — индекс в массивах, время начала и окончания —
+ * минуты эпохи (UTC) в long[], статус и тип — в byte[]. Объекты Task создаются только по запросу
+ * {@link #view(int)}.
+ * <p>
+ * Проверка пересечений, обход в порядке времени начала и агрегаты эпика работают по примитивным
+ * массивам без выделения памяти. Порядок по времени — массив id, отсортированный по (начало, id);
+ * как и в {@link TimeIntervalIndex}, интервалы в нем считаются попарно непересекающимися.
+ * <p>
+ * Точность времени — минута: начало округляется вниз, окончание вверх, поэтому задача с секундами
+ * в начале проверяется на пересечение с запасом. Точное время начала таких задач хранится отдельно
+ * и возвращается в представлении.
+ */
+public class ColumnarTaskStore {
+    public static final long NO_TIME = Task.NO_TIME;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    // 0 в колонке типа — пустая ячейка, 0 в колонке статуса — статус не задан
+    private static final byte ABSENT = 0;
+
+    private byte[] types = new byte[0];
+    private byte[] statuses = new byte[0];
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private long[] durations = new long[0];
+    private int[] epicIds = new int[0];
+    private String[] titles = new String[0];
+    private String[] descriptions = new String[0];
+    private int size;
+
+    // Точное время начала задач, у которых оно не кратно минуте
+    private final IntHashMap<LocalDateTime> preciseStarts = new IntHashMap<>(0);
+    // id эпика -> id его подзадач
+    private final IntHashMap<IntList> children = new IntHashMap<>();
+
+    // id задач и подзадач со временем, отсортированные по (начало, id); эпики сюда не попадают
+    private int[] byStart = new int[16];
+    private int timedCount;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id > 0 && id < types.length && types[id] != ABSENT;
+    }
+
+    public void put(Task task) {
+        int id = task.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("id задачи в колоночном хранилище должен быть положительным: " + id);
+        }
+        ensureCapacity(id + 1);
+        if (types[id] != ABSENT) {
+            unlink(id);
+        } else {
+            size++;
+        }
+
+        types[id] = (byte) (task.getType().ordinal() + 1);
+        statuses[id] = (byte) (task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        titles[id] = task.getTitle();
+        descriptions[id] = task.getDescription();
+        durations[id] = task.getDuration().toMinutes();
+        epicIds[id] = task instanceof Subtask ? ((Subtask) task).getEpicId() : 0;
+
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime == null || task instanceof Epic) {
+            starts[id] = NO_TIME;
+            ends[id] = NO_TIME;
+        } else {
+            starts[id] = task.getStartMinute();
+            ends[id] = task.getEndMinute();
+            if (startTime.getSecond() != 0 || startTime.getNano() != 0) {
+                preciseStarts.put(id, startTime);
+            }
+            insertByStart(id);
+        }
+
+        if (task instanceof Subtask) {
+            IntList siblings = children.get(epicIds[id]);
+            if (siblings == null) {
+                siblings = new IntList();
+                children.put(epicIds[id], siblings);
+            }
+            siblings.add(id);
+        }
+    }
+
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        unlink(id);
+        children.remove(id);
+        types[id] = ABSENT;
+        titles[id] = null;
+        descriptions[id] = null;
+        size--;
+    }
+
+    // Убирает задачу из порядка по времени и из подзадач эпика перед перезаписью или удалением
+    private void unlink(int id) {
+        if (starts[id] != NO_TIME) {
+            removeByStart(id);
+        }
+        preciseStarts.remove(id);
+        if (types[id] == TaskType.SUBTASK.ordinal() + 1) {
+            IntList siblings = children.get(epicIds[id]);
+            if (siblings != null) {
+                siblings.removeValue(id);
+            }
+        }
+    }
+
+    public TaskType getType(int id) {
+        return contains(id) ? TYPES[types[id] - 1] : null;
+    }
+
+    public Status getStatus(int id) {
+        return contains(id) && statuses[id] != 0 ? STATUSES[statuses[id] - 1] : null;
+    }
+
+    public long getStartMinute(int id) {
+        return contains(id) ? starts[id] : NO_TIME;
+    }
+
+    public long getEndMinute(int id) {
+        return contains(id) ? ends[id] : NO_TIME;
+    }
+
+    /**
+     * Пересекается ли интервал [start, end) в минутах эпохи с какой-либо задачей, кроме ignoredId.
+     * Кандидаты — задачи, начавшиеся раньше end, от поздних к ранним; как только начало кандидата
+     * оказывается раньше начала уже проверенного интервала, левее start, более ранние закончились раньше.
+     */
+    public boolean hasOverlap(long start, long end, int ignoredId) {
+        long boundary = NO_TIME;
+        for (int i = lowerBound(end, Integer.MIN_VALUE) - 1; i >= 0; i--) {
+            int id = byStart[i];
+            if (boundary != NO_TIME && starts[id] < boundary) {
+                break;
+            }
+            if (id != ignoredId && start < ends[id]) {
+                return true;
+            }
+            if (starts[id] < start) {
+                boundary = starts[id];
+            }
+        }
+        return false;
+    }
+
+    public boolean hasOverlap(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        return hasOverlap(task.getStartMinute(), task.getEndMinute(), task.getId());
+    }
+
+    // Обход id задач со временем в порядке (начало, id), пока visitor возвращает true
+    public void forEachByStart(IntPredicate visitor) {
+        for (int i = 0; i < timedCount; i++) {
+            if (!visitor.test(byStart[i])) {
+                return;
+            }
+        }
+    }
+
+    // Статус эпика по статусам подзадач — те же правила, что в Epic.calculateStatus
+    public Status epicStatus(int epicId) {
+        IntList subtasks = children.get(epicId);
+        if (subtasks == null || subtasks.isEmpty()) {
+            return Status.NEW;
+        }
+        int done = 0;
+        int fresh = 0;
+        for (int i = 0; i < subtasks.size(); i++) {
+            byte status = statuses[subtasks.get(i)];
+            if (status == Status.DONE.ordinal() + 1) {
+                done++;
+            } else if (status == Status.NEW.ordinal() + 1) {
+                fresh++;
+            }
+        }
+        if (done == subtasks.size()) {
+            return Status.DONE;
+        }
+        return fresh == subtasks.size() ? Status.NEW : Status.IN_PROGRESS;
+    }
+
+    // Самое раннее начало подзадач эпика в минутах эпохи; NO_TIME — ни у одной нет времени
+    public long epicStartMinute(int epicId) {
+        IntList subtasks = children.get(epicId);
+        long min = NO_TIME;
+        for (int i = 0; subtasks != null && i < subtasks.size(); i++) {
+            long start = starts[subtasks.get(i)];
+            if (start != NO_TIME && (min == NO_TIME || start < min)) {
+                min = start;
+            }
+        }
+        return min;
+    }
+
+    public long epicEndMinute(int epicId) {
+        IntList subtasks = children.get(epicId);
+        long max = NO_TIME;
+        for (int i = 0; subtasks != null && i < subtasks.size(); i++) {
+            max = Math.max(max, ends[subtasks.get(i)]);
+        }
+        return max;
+    }
+
+    public long epicDurationMinutes(int epicId) {
+        IntList subtasks = children.get(epicId);
+        long total = 0;
+        for (int i = 0; subtasks != null && i < subtasks.size(); i++) {
+            total += durations[subtasks.get(i)];
+        }
+        return total;
+    }
+
+    // Объект задачи, собранный из колонок; null — задачи нет
+    public Task view(int id) {
+        if (!contains(id)) {
+            return null;
+        }
+        Status status = getStatus(id);
+        Duration duration = Duration.ofMinutes(durations[id]);
+        switch (getType(id)) {
+            case EPIC:
+                long epicStart = epicStartMinute(id);
+                long epicEnd = epicEndMinute(id);
+                Epic epic = new Epic(titles[id], descriptions[id], id, epicStatus(id),
+                        Duration.ofMinutes(epicDurationMinutes(id)), toTime(epicStart), toTime(epicEnd));
+                IntList subtasks = children.get(id);
+                if (subtasks != null) {
+                    subtasks.forEach(epic::addSubtaskId);
+                }
+                return epic;
+            case SUBTASK:
+                return new Subtask(titles[id], descriptions[id], id, status, epicIds[id], duration, startTime(id));
+            default:
+                return new Task(titles[id], descriptions[id], id, status, duration, startTime(id));
+        }
+    }
+
+    private LocalDateTime startTime(int id) {
+        LocalDateTime precise = preciseStarts.get(id);
+        return precise != null ? precise : toTime(starts[id]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int length = Math.max(capacity, types.length + (types.length >> 1) + 16);
+        types = Arrays.copyOf(types, length);
+        statuses = Arrays.copyOf(statuses, length);
+        starts = Arrays.copyOf(starts, length);
+        ends = Arrays.copyOf(ends, length);
+        durations = Arrays.copyOf(durations, length);
+        epicIds = Arrays.copyOf(epicIds, length);
+        titles = Arrays.copyOf(titles, length);
+        descriptions = Arrays.copyOf(descriptions, length);
+    }
+
+    // Первая позиция в byStart, где (начало, id) не меньше (start, id)
+    private int lowerBound(long start, int id) {
+        int low = 0;
+        int high = timedCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int other = byStart[middle];
+            if (starts[other] < start || starts[other] == start && other < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void insertByStart(int id) {
+        if (timedCount == byStart.length) {
+            byStart = Arrays.copyOf(byStart, timedCount * 2);
+        }
+        int position = lowerBound(starts[id], id);
+        System.arraycopy(byStart, position, byStart, position + 1, timedCount - position);
+        byStart[position] = id;
+        timedCount++;
+    }
+
+    private void removeByStart(int id) {
+        int position = lowerBound(starts[id], id);
+        if (position < timedCount && byStart[position] == id) {
+            System.arraycopy(byStart, position + 1, byStart, position, timedCount - position - 1);
+            timedCount--;
+        }
+    }
+
+    public static long floorMinute(LocalDateTime time) {
+        return TimeUtils.toEpochMinute(time);
+    }
+
+    public static long ceilMinute(LocalDateTime time) {
+        long minute = floorMinute(time);
+        return time.getSecond() == 0 && time.getNano() == 0 ? minute : minute + 1;
+    }
+
+    private static LocalDateTime toTime(long minute) {
+        return minute == NO_TIME ? null : LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,822 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+ * <p>
+ * Хранилища — ConcurrentHashMap, id выдает AtomicInteger, приоритетный список —
+ * ConcurrentSkipListMap, поэтому чтение не блокируется. Изменения одной задачи атомарны
+ * за счет compute-операций карты. Проверка пересечения по времени и вставка в индекс
+ * интервалов выполняются под одним замком времени, чтобы два пересекающихся интервала
+ * не могли пройти проверку одновременно.
+ * <p>
+ * Подзадачи и агрегаты эпика меняются под замком эпика из набора полос (lock striping):
+ * изменения в разных эпиках не конкурируют. Порядок захвата: полосы эпиков по возрастанию
+ * номера, затем замок времени. Эпики читателям отдаются копиями, снятыми под замком полосы.
+ * <p>
+ * Выборки по id и статусу идут по индексам StatusIdIndex на ConcurrentSkipListSet, которые
+ * обновляются вместе с задачей, а не просмотром и сортировкой всего хранилища.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int EPIC_STRIPES = 64;
+    // Сколько раз размещение ищет новый промежуток, если найденный успели занять параллельно
+    static final int MAX_PLACEMENT_ATTEMPTS = 16;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ConcurrentHashMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+
+    private final HistoryManager historyManager;
+    // Историю без собственной синхронизации вызываем под ее монитором
+    private final boolean historyNeedsLock;
+
+    // Ключ приоритета фиксирует время начала на момент вставки: задача может измениться снаружи
+    private final ConcurrentSkipListMap<PriorityKey, Task> prioritizedTasks = new ConcurrentSkipListMap<>();
+    private final Map<Integer, PriorityKey> priorityKeys = new ConcurrentHashMap<>();
+
+    private final ReentrantLock timeLock = new ReentrantLock();
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+
+    private final ReentrantLock[] epicLocks = new ReentrantLock[EPIC_STRIPES];
+
+    // Упорядоченные по id индексы с разбиением по статусу: меняются там же, где и задача, — в compute-операции
+    // карты для задач и под замком эпика для эпиков и подзадач
+    private final StatusIdIndex taskIds = new StatusIdIndex(true);
+    private final StatusIdIndex epicIds = new StatusIdIndex(true);
+    private final StatusIdIndex subtaskIds = new StatusIdIndex(true);
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+        this.historyNeedsLock = !historyManager.isThreadSafe();
+        for (int i = 0; i < EPIC_STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public ConcurrentTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    private static final class PriorityKey implements Comparable<PriorityKey> {
+        private static final Comparator<PriorityKey> ORDER = Comparator
+                .comparingLong((PriorityKey key) -> key.minute)
+                .thenComparing(key -> key.start)
+                .thenComparingInt(key -> key.id);
+
+        final LocalDateTime start;
+        final long minute;
+        final int id;
+
+        PriorityKey(LocalDateTime start, long minute, int id) {
+            this.start = start;
+            this.minute = minute;
+            this.id = id;
+        }
+
+        PriorityKey(LocalDateTime start, int id) {
+            this(start, TimeUtils.toEpochMinute(start), id);
+        }
+
+        @Override
+        public int compareTo(PriorityKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private int generateId() {
+        return nextId.getAndIncrement();
+    }
+
+    // Проверяет пересечение и переиндексирует задачу атомарно относительно других изменений времени
+    private void reindex(Task task) {
+        timeLock.lock();
+        try {
+            if (task.getStartTime() != null && timeIndex.hasOverlap(task)) {
+                throw new ManagerValidateException("Задача пересекается по времени с существующей задачей");
+            }
+            unindexLocked(task.getId());
+            if (task.getStartTime() != null) {
+                timeIndex.add(task);
+                PriorityKey key = new PriorityKey(task.getStartTime(), task.getStartMinute(), task.getId());
+                priorityKeys.put(task.getId(), key);
+                prioritizedTasks.put(key, task);
+            }
+        } finally {
+            timeLock.unlock();
+        }
+    }
+
+    private void unindex(int id) {
+        timeLock.lock();
+        try {
+            unindexLocked(id);
+        } finally {
+            timeLock.unlock();
+        }
+    }
+
+    private void unindexLocked(int id) {
+        timeIndex.remove(id);
+        PriorityKey key = priorityKeys.remove(id);
+        if (key != null) {
+            prioritizedTasks.remove(key);
+        }
+    }
+
+    private static int stripe(int epicId) {
+        int hash = epicId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (EPIC_STRIPES - 1);
+    }
+
+    private ReentrantLock epicLock(int epicId) {
+        return epicLocks[stripe(epicId)];
+    }
+
+    // Захватывает полосы двух эпиков в фиксированном порядке, чтобы не было взаимной блокировки
+    private List<ReentrantLock> lockEpics(int firstEpicId, int secondEpicId) {
+        int first = Math.min(stripe(firstEpicId), stripe(secondEpicId));
+        int second = Math.max(stripe(firstEpicId), stripe(secondEpicId));
+        List<ReentrantLock> locks = new ArrayList<>(2);
+        locks.add(epicLocks[first]);
+        if (second != first) {
+            locks.add(epicLocks[second]);
+        }
+        locks.forEach(ReentrantLock::lock);
+        return locks;
+    }
+
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private void lockAllEpics() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllEpics() {
+        for (int i = EPIC_STRIPES - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private void recordView(Task task) {
+        if (!historyNeedsLock) {
+            historyManager.add(task);
+            return;
+        }
+        synchronized (historyManager) {
+            historyManager.add(task);
+        }
+    }
+
+    private void forget(int id) {
+        if (!historyNeedsLock) {
+            historyManager.remove(id);
+            return;
+        }
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    // Вызывается под замком эпика
+    private void updateEpicStatusAndTime(Epic epic) {
+        Status status = epic.calculateStatus();
+        if (status != epic.getStatus()) {
+            epic.setStatus(status);
+            epicIds.update(epic);
+        }
+        epic.calculateTimeFields();
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        if (task.getId() <= 0) {
+            task.setId(generateId());
+        }
+        tasks.compute(task.getId(), (id, existing) -> {
+            reindex(task);
+            taskIds.update(task);
+            return task;
+        });
+        return task;
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            recordView(task);
+            return Optional.of(task);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        tasks.computeIfPresent(task.getId(), (id, oldTask) -> {
+            reindex(task);
+            taskIds.update(task);
+            return task;
+        });
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        tasks.computeIfPresent(id, (key, removed) -> {
+            unindex(id);
+            taskIds.remove(id);
+            return null;
+        });
+        forget(id);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (Integer id : new ArrayList<>(tasks.keySet())) {
+            deleteTaskById(id);
+        }
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        epic.setId(generateId());
+        epic.setStatus(Status.NEW);
+        epics.put(epic.getId(), epic);
+        epicIds.add(epic);
+        return epic;
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        Epic epic = snapshotEpic(id);
+        if (epic != null) {
+            recordView(epic);
+            return Optional.of(epic);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        ArrayList<Epic> result = new ArrayList<>(epics.size());
+        forEachEpic(result::add);
+        return result;
+    }
+
+    // Эпик меняется на месте под замком полосы, поэтому наружу отдается копия, снятая под тем же замком:
+    // сериализация и чтение списка подзадач идут уже без замков
+    private Epic snapshotEpic(int id) {
+        ReentrantLock lock = epicLock(id);
+        lock.lock();
+        try {
+            Epic epic = epics.get(id);
+            return epic != null ? new Epic(epic) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = epicLock(epic.getId());
+        lock.lock();
+        try {
+            Epic existingEpic = epics.get(epic.getId());
+            if (existingEpic != null) {
+                existingEpic.setTitle(epic.getTitle());
+                existingEpic.setDescription(epic.getDescription());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        ReentrantLock lock = epicLock(id);
+        lock.lock();
+        try {
+            removeEpicLocked(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывается под замком эпика
+    private void removeEpicLocked(int id) {
+        Epic epic = epics.remove(id);
+        if (epic != null) {
+            epicIds.remove(id);
+            forget(id);
+            for (Integer subtaskId : epic.getSubtaskIds()) {
+                if (subtasks.remove(subtaskId) != null) {
+                    unindex(subtaskId);
+                    subtaskIds.remove(subtaskId);
+                }
+                forget(subtaskId);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAllEpics();
+        try {
+            for (Integer id : new ArrayList<>(epics.keySet())) {
+                removeEpicLocked(id);
+            }
+            for (Integer id : new ArrayList<>(subtasks.keySet())) {
+                subtasks.remove(id);
+                unindex(id);
+                subtaskIds.remove(id);
+                forget(id);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        if (subtask.getId() <= 0) {
+            subtask.setId(generateId());
+        }
+        // ПЕРВАЯ проверка: подзадача не может быть своим эпиком
+        if (subtask.getId() == subtask.getEpicId()) {
+            throw new IllegalArgumentException("ID подзадачи и эпика не должны совпадать!");
+        }
+
+        ReentrantLock lock = epicLock(subtask.getEpicId());
+        lock.lock();
+        try {
+            // ВТОРАЯ проверка: существует ли эпик для этой подзадачи
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new NotFoundException(String.format("Эпик с id %d не обнаружен", subtask.getEpicId()));
+            }
+            reindex(subtask);
+            subtasks.put(subtask.getId(), subtask);
+            subtaskIds.update(subtask);
+            epic.addSubtask(subtask);
+            updateEpicStatusAndTime(epic);
+        } finally {
+            lock.unlock();
+        }
+        return subtask;
+    }
+
+    /**
+     * Пакет проверяется и индексируется по времени под замком времени, чтобы между проверкой и вставкой никто
+     * не занял интервал; в карты задачи кладутся уже после его снятия. Одиночные операции берут замок времени
+     * изнутри compute, то есть под замком ячейки ConcurrentHashMap, поэтому держать замок времени при put нельзя —
+     * обратный порядок замков приводил бы к взаимной блокировке. Следствие — неатомарная видимость пакета,
+     * описанная в {@link TaskManager#createTasksBulk}: на время между снятием замка и put задачи пакета уже есть
+     * в getPrioritizedTasks и findFreeSlots, но еще не в getTaskById.
+     */
+    @Override
+    public List<Task> createTasksBulk(List<Task> batch) {
+        timeLock.lock();
+        try {
+            validateBatchLocked(batch);
+            for (Task task : batch) {
+                task.setId(generateId());
+                reindex(task);
+            }
+        } finally {
+            timeLock.unlock();
+        }
+        for (Task task : batch) {
+            tasks.put(task.getId(), task);
+            taskIds.add(task);
+        }
+        return new ArrayList<>(batch);
+    }
+
+    // Замки эпиков берутся раньше замка времени — в том же порядке, что и в createSubtask
+    @Override
+    public List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        lockAllEpics();
+        try {
+            for (Subtask subtask : batch) {
+                if (!epics.containsKey(subtask.getEpicId())) {
+                    throw new NotFoundException(String.format("Эпик с id %d не обнаружен", subtask.getEpicId()));
+                }
+            }
+            timeLock.lock();
+            try {
+                validateBatchLocked(batch);
+                for (Subtask subtask : batch) {
+                    subtask.setId(generateId());
+                    reindex(subtask);
+                }
+            } finally {
+                timeLock.unlock();
+            }
+            Map<Integer, Epic> affected = new HashMap<>();
+            for (Subtask subtask : batch) {
+                subtasks.put(subtask.getId(), subtask);
+                subtaskIds.add(subtask);
+                Epic epic = epics.get(subtask.getEpicId());
+                epic.addSubtask(subtask);
+                affected.put(epic.getId(), epic);
+            }
+            affected.values().forEach(this::updateEpicStatusAndTime);
+        } finally {
+            unlockAllEpics();
+        }
+        return new ArrayList<>(batch);
+    }
+
+    private void validateBatchLocked(List<? extends Task> batch) {
+        if (TimeUtils.hasMutualOverlap(batch)) {
+            throw new ManagerValidateException("Задачи пакета пересекаются по времени между собой");
+        }
+        for (Task task : batch) {
+            // Задачи пакета еще без id: заданный в них id не должен исключать чей-то интервал из проверки
+            if (task.getStartTime() != null && timeIndex.hasOverlap(task.getStartTime(), task.getEndTime(), 0)) {
+                throw new ManagerValidateException("Задача пересекается по времени с существующей задачей");
+            }
+        }
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
+            recordView(subtask);
+            return Optional.of(subtask);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        // ПЕРВАЯ проверка: подзадача не может быть своим эпиком
+        if (subtask.getId() == subtask.getEpicId()) {
+            throw new IllegalArgumentException("ID подзадачи и эпика не должны совпадать!");
+        }
+        while (true) {
+            Subtask current = subtasks.get(subtask.getId());
+            if (current == null) {
+                return;
+            }
+            int oldEpicId = current.getEpicId();
+            List<ReentrantLock> locks = lockEpics(oldEpicId, subtask.getEpicId());
+            try {
+                // Подзадачу могли перенести или удалить, пока мы ждали замок: повторяем
+                if (subtasks.get(subtask.getId()) != current || current.getEpicId() != oldEpicId) {
+                    continue;
+                }
+                // ВТОРАЯ проверка: существует ли эпик
+                Epic newEpic = epics.get(subtask.getEpicId());
+                if (newEpic == null) {
+                    throw new NotFoundException(String.format("Эпик с id %d не обнаружен", subtask.getEpicId()));
+                }
+                reindex(subtask);
+                subtasks.put(subtask.getId(), subtask);
+                subtaskIds.update(subtask);
+
+                if (oldEpicId != subtask.getEpicId()) {
+                    Epic oldEpic = epics.get(oldEpicId);
+                    if (oldEpic != null) {
+                        oldEpic.removeSubtaskId(subtask.getId());
+                        updateEpicStatusAndTime(oldEpic);
+                    }
+                }
+                newEpic.addSubtask(subtask);
+                updateEpicStatusAndTime(newEpic);
+                return;
+            } finally {
+                unlockAll(locks);
+            }
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        while (true) {
+            Subtask current = subtasks.get(id);
+            if (current == null) {
+                return;
+            }
+            ReentrantLock lock = epicLock(current.getEpicId());
+            lock.lock();
+            try {
+                if (!subtasks.remove(id, current)) {
+                    continue;
+                }
+                subtaskIds.remove(id);
+                Epic epic = epics.get(current.getEpicId());
+                if (epic != null) {
+                    epic.removeSubtaskId(id);
+                    updateEpicStatusAndTime(epic);
+                }
+                forget(id);
+                unindex(id);
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockAllEpics();
+        try {
+            for (Integer id : new ArrayList<>(subtasks.keySet())) {
+                subtasks.remove(id);
+                forget(id);
+                unindex(id);
+                subtaskIds.remove(id);
+            }
+            for (Epic epic : epics.values()) {
+                epic.clearSubtasks();
+                updateEpicStatusAndTime(epic);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByEpicId(int epicId) {
+        List<Integer> ids;
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return new ArrayList<>();
+            }
+            ids = epic.getSubtaskIds();
+        } finally {
+            lock.unlock();
+        }
+        return ids.stream()
+                .map(subtasks::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        if (!historyNeedsLock) {
+            return historyManager.getHistory();
+        }
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (!historyNeedsLock) {
+            return historyManager.getHistory(limit);
+        }
+        synchronized (historyManager) {
+            return historyManager.getHistory(limit);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return new ArrayList<>(prioritizedTasks.values());
+    }
+
+    // Обход слабо согласован: видит изменения, сделанные во время обхода, но не бросает исключений
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        for (Integer id : epics.keySet()) {
+            Epic epic = snapshotEpic(id);
+            if (epic != null) {
+                action.accept(epic);
+            }
+        }
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        prioritizedTasks.values().forEach(action);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return byStatus(taskIds, tasks::get, status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return byStatus(epicIds, this::snapshotEpic, status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return byStatus(subtaskIds, subtasks::get, status);
+    }
+
+    // Счетчик корзины, O(1); при одновременных изменениях — значение на момент чтения
+    @Override
+    public int countTasksByStatus(Status status) {
+        return taskIds.count(status);
+    }
+
+    @Override
+    public int countEpicsByStatus(Status status) {
+        return epicIds.count(status);
+    }
+
+    @Override
+    public int countSubtasksByStatus(Status status) {
+        return subtaskIds.count(status);
+    }
+
+    // Индекс обходится без замков: удаленные и успевшие сменить статус задачи отбрасываются
+    private static <T extends Task> List<T> byStatus(StatusIdIndex index, IntFunction<T> lookup, Status status) {
+        List<T> result = new ArrayList<>(index.count(status));
+        index.forEach(status, id -> {
+            T task = lookup.apply(id);
+            if (task != null && task.getStatus() == status) {
+                result.add(task);
+            }
+        });
+        return result;
+    }
+
+    // Страницы по id — tailSet корзин индекса, O(log n + размер страницы), без копирования и сортировки карты
+    @Override
+    public Page<Task> findTasks(TaskQuery query) {
+        return pageById(taskIds, tasks::get, query);
+    }
+
+    @Override
+    public Page<Epic> findEpics(TaskQuery query) {
+        return pageById(epicIds, this::snapshotEpic, query);
+    }
+
+    @Override
+    public Page<Subtask> findSubtasks(TaskQuery query) {
+        return pageById(subtaskIds, subtasks::get, query);
+    }
+
+    // Задача могла быть удалена после чтения id из индекса: Collector пропускает null
+    private static <T extends Task> Page<T> pageById(StatusIdIndex index, IntFunction<T> lookup, TaskQuery query) {
+        Page.Collector<T> collector = new Page.Collector<>(query, TaskQuery::idCursor);
+        index.forEachAfter(query.getStatus(), query.afterId(), id -> collector.offer(lookup.apply(id)));
+        return collector.toPage();
+    }
+
+    // Страница приоритетного списка — tailMap skip-list
+    @Override
+    public Page<Task> findPrioritized(TaskQuery query) {
+        LocalDateTime afterTime = query.afterStartTime();
+        Map<PriorityKey, Task> candidates;
+        if (afterTime != null && (query.getFrom() == null || !afterTime.isBefore(query.getFrom()))) {
+            candidates = prioritizedTasks.tailMap(new PriorityKey(afterTime, query.afterStartId()), false);
+        } else if (query.getFrom() != null) {
+            candidates = prioritizedTasks.tailMap(new PriorityKey(query.getFrom(), Integer.MIN_VALUE), true);
+        } else {
+            candidates = prioritizedTasks;
+        }
+
+        Page.Collector<Task> collector = new Page.Collector<>(query, TaskQuery::timeCursor);
+        for (Map.Entry<PriorityKey, Task> entry : candidates.entrySet()) {
+            if (query.getTo() != null && !entry.getKey().start.isBefore(query.getTo())) {
+                break;
+            }
+            if (!collector.offer(entry.getValue())) {
+                break;
+            }
+        }
+        return collector.toPage();
+    }
+
+    // Обход skip-list с from; эпики в приоритетный список этого менеджера не попадают, но обратный обход мимо
+    // задач нулевой длительности перед from не ограничен — в худшем случае O(n)
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, Duration duration, int limit) {
+        TimeUtils.checkSlotQuery(duration, limit);
+        PriorityKey start = new PriorityKey(from, Integer.MIN_VALUE);
+        Task previous = null;
+        for (Task task : prioritizedTasks.headMap(start, false).descendingMap().values()) {
+            if (task.getEndTime().isAfter(task.getStartTime())) {
+                previous = task;
+                break;
+            }
+        }
+        return TimeUtils.freeSlots(previous, prioritizedTasks.tailMap(start, true).values(), from, duration, limit);
+    }
+
+    // Найденный промежуток могут занять параллельно: тогда поиск повторяется с уже обновленным расписанием,
+    // но не более MAX_PLACEMENT_ATTEMPTS раз — дальше конфликт отдается вызывающему
+    @Override
+    public Task placeTask(Task task, LocalDateTime notBefore) {
+        ManagerValidateException conflict = null;
+        for (int attempt = 0; attempt < MAX_PLACEMENT_ATTEMPTS; attempt++) {
+            task.setStartTime(findFreeSlots(notBefore, task.getDuration(), 1).get(0).getStart());
+            try {
+                return createTask(task);
+            } catch (ManagerValidateException e) {
+                conflict = e;
+            }
+        }
+        throw placementConflict(conflict);
+    }
+
+    @Override
+    public Subtask placeSubtask(Subtask subtask, LocalDateTime notBefore) {
+        ManagerValidateException conflict = null;
+        for (int attempt = 0; attempt < MAX_PLACEMENT_ATTEMPTS; attempt++) {
+            subtask.setStartTime(findFreeSlots(notBefore, subtask.getDuration(), 1).get(0).getStart());
+            try {
+                return createSubtask(subtask);
+            } catch (ManagerValidateException e) {
+                conflict = e;
+            }
+        }
+        throw placementConflict(conflict);
+    }
+
+    private static ManagerValidateException placementConflict(ManagerValidateException last) {
+        return new ManagerValidateException(String.format(
+                "Не удалось разместить задачу за %d попыток: промежутки занимают параллельно",
+                MAX_PLACEMENT_ATTEMPTS), last);
+    }
+
+    @Override
+    public Task getTaskOrThrow(int id) throws NotFoundException {
+        Task task = tasks.get(id);
+        if (task == null) {
+            throw new NotFoundException(String.format("Задача с id %d не обнаружена", id));
+        }
+        recordView(task);
+        return task;
+    }
+
+    @Override
+    public Epic getEpicOrThrow(int id) throws NotFoundException {
+        Epic epic = snapshotEpic(id);
+        if (epic == null) {
+            throw new NotFoundException(String.format("Эпик с id %d не обнаружен", id));
+        }
+        recordView(epic);
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtaskOrThrow(int id) throws NotFoundException {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            throw new NotFoundException(String.format("Подзадача с id %d не обнаружена", id));
+        }
+        recordView(subtask);
+        return subtask;
+    }
+}
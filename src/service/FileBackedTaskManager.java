@@ -1,24 +1,100 @@
 package service;
 
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
 import model.*;
 import model.enums.Status;
 import model.enums.TaskType;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String HEADER = "id,type,name,status,description,epic,startTime,duration";
+    private static final int FIELD_COUNT = 8;
+
+    // Записи журнала: полное состояние задачи, удаление по id, очистка всех задач типа
+    private static final String RECORD_PUT = "PUT";
+    private static final String RECORD_DELETE = "DEL";
+    private static final String RECORD_CLEAR = "CLEAR";
+
+    // Сколько пересечений перечислять в сообщении об ошибке загрузки
+    private static final int MAX_REPORTED_CONFLICTS = 10;
+
+    private static final Timer SAVE_DURATION = MetricsRegistry.getDefault().timer(
+            "task_snapshot_save_duration_seconds", "Длительность записи снимка задач в файл");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.getDefault().counter(
+            "task_snapshot_bytes_written_total", "Байт записано в файлы снимков задач");
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    // null — классический режим: полная перезапись файла при каждом изменении
+    private final TaskJournal journal;
+    private final int compactionThreshold;
+    private volatile Throwable compactionFailure;
+    // null — изменения сохраняются сразу, без групповой фиксации
+    private final GroupCommitWriter groupCommit;
+    private final Object fileLock = new Object();
+    // Формат снимка; при загрузке заменяется форматом прочитанного файла
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
 
     public FileBackedTaskManager(File file) {
         this.file = file;
+        this.journal = null;
+        this.compactionThreshold = 0;
+        this.groupCommit = null;
+    }
+
+    public FileBackedTaskManager(File file, SnapshotFormat snapshotFormat) {
+        this(file);
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    // Классический режим с хранилищами, заранее рассчитанными на количество записей из заголовка снимка
+    private FileBackedTaskManager(File file, BinarySnapshot.Header header) {
+        super(Managers.getDefaultHistory(), header.tasks, header.epics, header.subtasks);
+        this.file = file;
+        this.journal = null;
+        this.compactionThreshold = 0;
+        this.groupCommit = null;
+        this.snapshotFormat = SnapshotFormat.BINARY;
+    }
+
+    /**
+     * Режим групповой фиксации: изменения только помечают хранилище измененным, а отдельный
+     * поток перезаписывает файл не чаще раза в {@code flushIntervalMillis} или по накоплении
+     * {@code flushBatchSize} изменений. Дождаться записи можно через {@link #commit()}.
+     */
+    public FileBackedTaskManager(File file, long flushIntervalMillis, int flushBatchSize) {
+        this.file = file;
+        this.journal = null;
+        this.compactionThreshold = 0;
+        this.groupCommit = new GroupCommitWriter(this::flush, flushIntervalMillis, flushBatchSize);
+    }
+
+    /**
+     * Режим журнала: каждое изменение дописывается одной записью в файл {@code <file>.journal},
+     * а после {@code compactionThreshold} записей журнал в фоне сворачивается в снимок {@code file}.
+     */
+    public FileBackedTaskManager(File file, TaskJournal.SyncPolicy syncPolicy,
+                                 long syncIntervalMillis, int compactionThreshold) {
+        this.file = file;
+        this.journal = new TaskJournal(TaskJournal.pathFor(file.toPath()), syncPolicy, syncIntervalMillis);
+        this.compactionThreshold = compactionThreshold;
+        this.groupCommit = null;
     }
 
     @Override
@@ -28,23 +104,182 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     // Метод сохранения в файл
     void save() {
+        if (journal != null) {
+            try {
+                compact().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Свертка журнала прервана", e);
+            } catch (ExecutionException e) {
+                compactionFailure = null;
+                throw new ManagerSaveException("Ошибка сохранения в файл", e.getCause());
+            }
+            return;
+        }
         try {
-            List<String> lines = new ArrayList<>();
-            lines.add("id,type,name,status,description,epic,startTime,duration");
+            flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+        }
+    }
+
+    // Снимок состояния берется под монитором менеджера, запись файла идет уже без него
+    private void flush() throws IOException {
+        long started = System.nanoTime();
+        byte[] snapshot;
+        synchronized (this) {
+            snapshot = snapshotBytes();
+        }
+        synchronized (fileLock) {
+            Files.write(file.toPath(), snapshot);
+        }
+        BYTES_WRITTEN.add(snapshot.length);
+        SAVE_DURATION.recordSince(started);
+    }
+
+    /**
+     * Будущее, завершающееся после записи на диск всех уже сделанных изменений.
+     * Вне режима групповой фиксации изменения записываются сразу, и будущее уже завершено.
+     */
+    public CompletableFuture<Void> commit() {
+        if (groupCommit == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return groupCommit.commit();
+    }
+
+    long getFlushCount() {
+        return groupCommit != null ? groupCommit.getFlushCount() : 0;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
 
-            for (Task task : getAllTasks()) {
-                lines.add(toString(task));
+    private byte[] snapshotBytes() {
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            return BinarySnapshot.encode(tasks.values(), epics.values(), subtasks.values());
+        }
+        String separator = System.lineSeparator();
+        StringBuilder csv = new StringBuilder(HEADER).append(separator);
+
+        for (Task task : tasks.values()) {
+            csv.append(toString(task)).append(separator);
+        }
+        for (Epic epic : epics.values()) {
+            csv.append(toString(epic)).append(separator);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            csv.append(toString(subtask)).append(separator);
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Свертка журнала: снимок состояния снимается сразу, а запись файла и обрезка журнала идут в фоне
+    private Future<Void> compact() {
+        long started = System.nanoTime();
+        byte[] snapshot = snapshotBytes();
+        long offset = journal.markCompaction();
+        return journal.submit(() -> {
+            try {
+                Path target = file.toPath();
+                Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+                // Снимок и его переименование должны дойти до диска раньше, чем из журнала уйдут вошедшие в него
+                // записи: иначе после отключения питания останется пустой снимок без журнала
+                TaskJournal.writeDurably(tmp, snapshot);
+                TaskJournal.moveAtomically(tmp, target);
+                TaskJournal.syncDirectory(target);
+                journal.truncateBefore(offset);
+                BYTES_WRITTEN.add(snapshot.length);
+                SAVE_DURATION.recordSince(started);
+            } catch (IOException | RuntimeException e) {
+                compactionFailure = e;
+                throw e;
             }
-            for (Epic epic : getAllEpics()) {
-                lines.add(toString(epic));
+            return null;
+        });
+    }
+
+    private void appendRecord(String record) {
+        appendRecords(List.of(record));
+    }
+
+    // Изменение в памяти уже сделано, поэтому запись в журнал идет первой, а ошибка прошлой свертки
+    // сообщается после нее. Неудачная свертка журнал не обрезает, так что прежние записи тоже целы
+    private void appendRecords(List<String> records) {
+        journal.appendAll(records);
+        Throwable failure = compactionFailure;
+        if (failure != null) {
+            compactionFailure = null;
+            throw new ManagerSaveException("Ошибка фоновой свертки журнала", failure);
+        }
+        if (compactionThreshold > 0 && journal.getRecordsSinceCompaction() >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    private void persistPut(Task task) {
+        if (task == null) {
+            return;
+        }
+        if (groupCommit != null) {
+            groupCommit.markDirty();
+        } else if (journal == null) {
+            save();
+        } else {
+            appendRecord(RECORD_PUT + "," + toString(task));
+        }
+    }
+
+    // Пакет созданных задач сохраняется один раз: одной записью в журнал или одним снимком
+    private void persistPutAll(List<? extends Task> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        if (groupCommit != null) {
+            groupCommit.markDirty();
+        } else if (journal == null) {
+            save();
+        } else {
+            List<String> records = new ArrayList<>(created.size());
+            for (Task task : created) {
+                records.add(RECORD_PUT + "," + toString(task));
             }
-            for (Subtask subtask : getAllSubtasks()) {
-                lines.add(toString(subtask));
+            appendRecords(records);
+        }
+    }
+
+    private void persistDelete(List<Integer> ids) {
+        if (groupCommit != null) {
+            groupCommit.markDirty();
+        } else if (journal == null) {
+            save();
+        } else {
+            for (Integer id : ids) {
+                appendRecord(RECORD_DELETE + "," + id);
             }
+        }
+    }
 
-            Files.write(file.toPath(), lines);
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+    private void persistClear(TaskType... types) {
+        if (groupCommit != null) {
+            groupCommit.markDirty();
+        } else if (journal == null) {
+            save();
+        } else {
+            for (TaskType type : types) {
+                appendRecord(RECORD_CLEAR + "," + type);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+        if (groupCommit != null) {
+            groupCommit.close();
         }
     }
 
@@ -76,24 +311,41 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     // Восстановление задачи из строки
     private static Task fromString(String value) {
-        // Используем split с limit -1, чтобы сохранить все поля, включая пустые в конце
-        String[] fields = value.split(",", -1);
+        return fromString(value, 0);
+    }
+
+    // Разбор полей без split: позиции разделителей ищутся вручную, числа и даты читаются прямо из строки
+    private static Task fromString(String value, int offset) {
+        int[] bounds = new int[FIELD_COUNT + 1];
+        bounds[0] = offset - 1;
+        int found = 1;
+        for (int i = offset; i < value.length() && found < FIELD_COUNT; i++) {
+            if (value.charAt(i) == ',') {
+                bounds[found++] = i;
+            }
+        }
 
         // Проверяем минимальное количество полей
-        if (fields.length < 8) {
+        if (found < FIELD_COUNT) {
             throw new IllegalArgumentException("Неверный формат строки: ожидается 8 полей, получено "
-                    + fields.length + ". Строка: " + value);
+                    + found + ". Строка: " + value);
         }
-
-        int id = Integer.parseInt(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        Status status = Status.valueOf(fields[3]);
-        String description = fields[4];
-        String epicIdStr = fields[5];
-
-        LocalDateTime startTime = fields[6].isEmpty() ? null : LocalDateTime.parse(fields[6]);
-        Duration duration = fields[7].isEmpty() ? Duration.ZERO : Duration.ofMinutes(Long.parseLong(fields[7]));
+        int lastComma = value.indexOf(',', bounds[FIELD_COUNT - 1] + 1);
+        bounds[FIELD_COUNT] = lastComma < 0 ? value.length() : lastComma;
+
+        int id = Integer.parseInt(value, bounds[0] + 1, bounds[1], 10);
+        TaskType type = parseEnum(TaskType.values(), value, bounds[1] + 1, bounds[2]);
+        String name = value.substring(bounds[2] + 1, bounds[3]);
+        Status status = parseEnum(Status.values(), value, bounds[3] + 1, bounds[4]);
+        String description = value.substring(bounds[4] + 1, bounds[5]);
+
+        int timeFrom = bounds[6] + 1;
+        int timeTo = bounds[7];
+        LocalDateTime startTime = timeFrom == timeTo ? null : TimeUtils.parseDateTime(value, timeFrom, timeTo);
+        int durationFrom = bounds[7] + 1;
+        int durationTo = bounds[8];
+        Duration duration = durationFrom == durationTo ? Duration.ZERO
+                : Duration.ofMinutes(Long.parseLong(value, durationFrom, durationTo, 10));
 
         switch (type) {
             case TASK:
@@ -102,135 +354,274 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 Epic epic = new Epic(name, description, id, status, duration, startTime, null);
                 return epic;
             case SUBTASK:
-                int epicId = Integer.parseInt(epicIdStr);
+                int epicId = Integer.parseInt(value, bounds[5] + 1, bounds[6], 10);
                 return new Subtask(name, description, id, status, epicId, duration, startTime);
             default:
                 throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
         }
     }
 
-    public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+    private static <E extends Enum<E>> E parseEnum(E[] values, String line, int from, int to) {
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == to - from && line.regionMatches(from, name, 0, name.length())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение " + line.substring(from, to)
+                + ". Строка: " + line);
+    }
 
+    public static FileBackedTaskManager loadFromFile(File file) {
+        FileBackedTaskManager manager;
         try {
-            String content = Files.readString(file.toPath());
-            String[] lines = content.split("\n");
-
-            // Пропускаем заголовок
-            int maxId = 0;
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
-
-                Task task = fromString(line);
-                int id = task.getId();
-
-                if (id > maxId) maxId = id;
-
-                if (task instanceof Epic) {
-                    manager.epics.put(id, (Epic) task);
-                } else if (task instanceof Subtask) {
-                    manager.subtasks.put(id, (Subtask) task);
-                } else {
-                    manager.tasks.put(id, task);
-                }
-                manager.addToPrioritizedTasks(task);
+            manager = BinarySnapshot.isBinary(file.toPath())
+                    ? new FileBackedTaskManager(file, BinarySnapshot.readHeader(file.toPath()))
+                    : new FileBackedTaskManager(file);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки из файла", e);
+        }
+        Path journalPath = TaskJournal.pathFor(file.toPath());
+        boolean replayed = restore(manager, journalPath);
+
+        // В классическом режиме хвост журнала сразу сворачивается в снимок, иначе он устареет
+        if (replayed) {
+            manager.save();
+            try {
+                Files.deleteIfExists(journalPath);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка удаления журнала", e);
             }
+        }
+        return manager;
+    }
 
-            manager.nextId = maxId + 1;
+    // Загрузка снимка и воспроизведение хвоста журнала с продолжением работы в режиме журнала
+    public static FileBackedTaskManager loadFromFile(File file, TaskJournal.SyncPolicy syncPolicy,
+                                                     long syncIntervalMillis, int compactionThreshold) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, syncPolicy,
+                syncIntervalMillis, compactionThreshold);
+        try {
+            restore(manager, TaskJournal.pathFor(file.toPath()));
+        } catch (RuntimeException e) {
+            manager.close();
+            throw e;
+        }
+        return manager;
+    }
 
-            // Восстанавливаем связи Epic-Subtask
-            for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
+    /**
+     * Загружает снимок (формат определяется по сигнатуре файла) и воспроизводит поверх него журнал.
+     * Записи журнала идемпотентны (полное состояние задачи, удаление, очистка), поэтому повторное применение записей,
+     * уже вошедших в снимок после незавершенной свертки, дает то же состояние.
+     *
+     * @return были ли в журнале записи
+     */
+    private static boolean restore(FileBackedTaskManager manager, Path journalPath) {
+        int replayed;
+        try {
+            Path snapshot = manager.file.toPath();
+            if (BinarySnapshot.isBinary(snapshot)) {
+                manager.snapshotFormat = SnapshotFormat.BINARY;
+                BinarySnapshot.read(snapshot, manager::putRecord);
+            } else if (Files.exists(snapshot) || !Files.exists(journalPath)) {
+                manager.snapshotFormat = SnapshotFormat.CSV;
+                // Файл читается построчно: в памяти держится только текущая строка
+                try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+                    String line = reader.readLine(); // Пропускаем заголовок
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty()) continue;
+
+                        manager.putRecord(fromString(line));
+                    }
                 }
             }
+            replayed = TaskJournal.forEachRecord(journalPath, manager::replay);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки из файла", e);
+        }
+
+        manager.validateSchedule();
+        manager.rebuildIndexes();
+        return replayed > 0;
+    }
 
-            // Обновляем статусы эпиков
-            for (Epic epic : manager.epics.values()) {
-                manager.updateEpicStatusAndTime(epic);
+    /**
+     * Загруженные данные не проходили проверку пересечений при создании, поэтому расписание
+     * задач и подзадач проверяется целиком одним проходом; эпики лишь охватывают свои подзадачи.
+     */
+    private void validateSchedule() {
+        List<Task> timed = new ArrayList<>(tasks.size() + subtasks.size());
+        timed.addAll(tasks.values());
+        timed.addAll(subtasks.values());
+        List<TimeConflict> conflicts = TimeUtils.findConflictsParallel(timed);
+        if (!conflicts.isEmpty()) {
+            StringBuilder message = new StringBuilder("Загруженные задачи пересекаются по времени: ");
+            for (int i = 0; i < Math.min(conflicts.size(), MAX_REPORTED_CONFLICTS); i++) {
+                message.append(i > 0 ? ", " : "").append(conflicts.get(i));
             }
+            if (conflicts.size() > MAX_REPORTED_CONFLICTS) {
+                message.append(" и еще ").append(conflicts.size() - MAX_REPORTED_CONFLICTS);
+            }
+            throw new ManagerValidateException(message.toString());
+        }
+    }
 
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка загрузки из файла", e);
+    private void putRecord(Task task) {
+        int id = task.getId();
+        tasks.remove(id);
+        epics.remove(id);
+        subtasks.remove(id);
+
+        if (task instanceof Epic) {
+            epics.put(id, (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(id, (Subtask) task);
+        } else {
+            tasks.put(id, task);
+        }
+    }
+
+    private void replay(String record) {
+        int separator = record.indexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Неверный формат записи журнала: " + record);
+        }
+        String kind = record.substring(0, separator);
+
+        switch (kind) {
+            case RECORD_PUT:
+                putRecord(fromString(record, separator + 1));
+                break;
+            case RECORD_DELETE:
+                int id = Integer.parseInt(record, separator + 1, record.length(), 10);
+                tasks.remove(id);
+                epics.remove(id);
+                subtasks.remove(id);
+                break;
+            case RECORD_CLEAR:
+                switch (parseEnum(TaskType.values(), record, separator + 1, record.length())) {
+                    case TASK:
+                        tasks.clear();
+                        break;
+                    case EPIC:
+                        epics.clear();
+                        break;
+                    case SUBTASK:
+                        subtasks.clear();
+                        break;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный тип записи журнала: " + kind);
         }
-        return manager;
     }
 
     @Override
-    public Task createTask(Task task) {
+    public synchronized Task createTask(Task task) {
         Task createdTask = super.createTask(task);
-        save();
+        persistPut(createdTask);
         return createdTask;
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized List<Task> createTasksBulk(List<Task> batch) {
+        List<Task> created = super.createTasksBulk(batch);
+        persistPutAll(created);
+        return created;
+    }
+
+    // Поиск промежутка и создание под одним монитором, чтобы промежуток не заняли между ними
+    @Override
+    public synchronized Task placeTask(Task task, LocalDateTime notBefore) {
+        return super.placeTask(task, notBefore);
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        persistPut(tasks.get(task.getId()));
     }
 
     @Override
-    public void deleteTaskById(int id) {
+    public synchronized void deleteTaskById(int id) {
         super.deleteTaskById(id);
-        save();
+        persistDelete(List.of(id));
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persistClear(TaskType.TASK);
     }
 
     @Override
-    public Epic createEpic(Epic epic) {
+    public synchronized Epic createEpic(Epic epic) {
         Epic createdEpic = super.createEpic(epic);
-        save();
+        persistPut(createdEpic);
         return createdEpic;
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        persistPut(epics.get(epic.getId()));
     }
 
     @Override
-    public void deleteEpicById(int id) {
+    public synchronized void deleteEpicById(int id) {
+        Epic epic = epics.get(id);
+        List<Integer> removedIds = new ArrayList<>();
+        removedIds.add(id);
+        if (epic != null) {
+            removedIds.addAll(epic.getSubtaskIds());
+        }
         super.deleteEpicById(id);
-        save();
+        persistDelete(removedIds);
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persistClear(TaskType.EPIC, TaskType.SUBTASK);
     }
 
     @Override
-    public Subtask createSubtask(Subtask subtask) {
+    public synchronized Subtask createSubtask(Subtask subtask) {
         Subtask createdSubtask = super.createSubtask(subtask);
-        save();
+        persistPut(createdSubtask);
         return createdSubtask;
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        List<Subtask> created = super.createSubtasksBulk(batch);
+        persistPutAll(created);
+        return created;
+    }
+
+    @Override
+    public synchronized Subtask placeSubtask(Subtask subtask, LocalDateTime notBefore) {
+        return super.placeSubtask(subtask, notBefore);
+    }
+
+    @Override
+    public synchronized void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        persistPut(subtasks.get(subtask.getId()));
     }
 
     @Override
-    public void deleteSubtaskById(int id) {
+    public synchronized void deleteSubtaskById(int id) {
         super.deleteSubtaskById(id);
-        save();
+        persistDelete(List.of(id));
     }
 
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persistClear(TaskType.SUBTASK);
     }
 
     public static void main(String[] args) {
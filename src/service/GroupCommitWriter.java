@@ -0,0 +1,149 @@
+package service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Групповая фиксация изменений: мутации только помечают хранилище "грязным",
+ * а единственный поток записи сбрасывает состояние не чаще раза за интервал
+ * или сразу по набору заданного количества изменений.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+
+    public interface FlushAction {
+        void flush() throws Exception;
+    }
+
+    private final FlushAction flushAction;
+    private final long intervalNanos;
+    private final int batchSize;
+    private final Thread writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final AtomicLong flushCount = new AtomicLong();
+
+    // Будущее текущей (еще не сброшенной) группы изменений
+    private CompletableFuture<Void> pending = new CompletableFuture<>();
+    private int pendingCount;
+    // Будущее группы, которую поток записи сбрасывает прямо сейчас; null — сброса нет
+    private CompletableFuture<Void> inFlight;
+    private long firstPendingNanos;
+    private boolean closed;
+
+    public GroupCommitWriter(FlushAction flushAction, long intervalMillis, int batchSize) {
+        this.flushAction = flushAction;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.writer = new Thread(this::run, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Помечает хранилище измененным; будущее завершится после сброса, включающего это изменение
+    public CompletableFuture<Void> markDirty() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new ManagerSaveException("Запись изменений уже остановлена");
+            }
+            if (pendingCount == 0) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pendingCount++;
+            if (pendingCount >= batchSize) {
+                changed.signal();
+            }
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Будущее последней группы изменений. Если новых изменений нет, но группа еще сбрасывается,
+     * возвращается ее будущее; уже завершенное — только когда все изменения на диске.
+     */
+    public CompletableFuture<Void> commit() {
+        lock.lock();
+        try {
+            if (pendingCount > 0) {
+                return pending;
+            }
+            return inFlight != null ? inFlight : CompletableFuture.completedFuture(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    private void run() {
+        while (true) {
+            CompletableFuture<Void> batch;
+            lock.lock();
+            try {
+                while (!closed && !isDue()) {
+                    if (pendingCount == 0) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(intervalNanos - (System.nanoTime() - firstPendingNanos));
+                    }
+                }
+                if (pendingCount == 0) {
+                    return;
+                }
+                batch = pending;
+                inFlight = batch;
+                pending = new CompletableFuture<>();
+                pendingCount = 0;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                flushAction.flush();
+                flushCount.incrementAndGet();
+                batch.complete(null);
+            } catch (Exception e) {
+                batch.completeExceptionally(e);
+            } finally {
+                lock.lock();
+                try {
+                    inFlight = null;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private boolean isDue() {
+        return pendingCount >= batchSize
+                || (pendingCount > 0 && System.nanoTime() - firstPendingNanos >= intervalNanos);
+    }
+
+    // Останавливает поток записи, предварительно сбросив оставшиеся изменения
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
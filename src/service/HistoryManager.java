@@ -1,6 +1,7 @@
 package service;
 
 import model.Task;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface HistoryManager {
@@ -9,4 +10,20 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    // Последние limit просмотров, от давних к недавним
+    default List<Task> getHistory(int limit) {
+        List<Task> history = getHistory();
+        return new ArrayList<>(history.subList(Math.max(0, history.size() - Math.max(limit, 0)), history.size()));
+    }
+
+    // Количество записей в истории; по умолчанию — размером копии
+    default int size() {
+        return getHistory().size();
+    }
+
+    // true — реализация сама синхронизирует доступ, и многопоточному менеджеру не нужен общий замок
+    default boolean isThreadSafe() {
+        return false;
     }
+}
@@ -1,13 +1,21 @@
 package service;
 
 import model.Task;
+import util.IntHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * История просмотров: двусвязный список в порядке просмотра и карта id -> узел.
+ * <p>
+ * При заданной емкости история работает как LRU: повторный просмотр переносит задачу в конец,
+ * а при переполнении вытесняется самая давняя. Без емкости история не ограничена.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    // Емкость истории долгоживущего сервера
+    public static final int DEFAULT_CAPACITY = 1000;
 
     private static class Node {
         Task task;
@@ -19,24 +27,53 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
+    private final int capacity;
+    private final IntHashMap<Node> nodeMap = new IntHashMap<>();
     private Node head;
     private Node tail;
 
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return nodeMap.size();
+    }
+
     @Override
     public void add(Task task) {
         if (task == null) {
             return;
         }
 
-        int id = task.getId();
-        if (nodeMap.containsKey(id)) {
-            remove(id);
+        // Узел повторно просмотренной задачи переиспользуется: перенос в конец без новой аллокации
+        Node node = nodeMap.get(task.getId());
+        if (node != null) {
+            removeNode(node);
+            node.task = task;
+        } else {
+            node = new Node(task);
+            nodeMap.put(task.getId(), node);
         }
+        linkLast(node);
 
-        Node newNode = new Node(task);
-        linkLast(newNode);
-        nodeMap.put(id, newNode);
+        if (nodeMap.size() > capacity) {
+            Node eldest = head;
+            removeNode(eldest);
+            nodeMap.remove(eldest.task.getId());
+        }
     }
 
     private void linkLast(Node node) {
@@ -51,10 +88,9 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public void remove(int id) {
-        Node node = nodeMap.get(id);
+        Node node = nodeMap.remove(id);
         if (node != null) {
             removeNode(node);
-            nodeMap.remove(id);
         }
     }
 
@@ -77,7 +113,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public List<Task> getHistory() {
-        List<Task> history = new ArrayList<>();
+        List<Task> history = new ArrayList<>(nodeMap.size());
         Node current = head;
         while (current != null) {
             history.add(current.task);
@@ -85,4 +121,20 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         return history;
     }
-}
\ No newline at end of file
+
+    // Последние limit просмотров в том же порядке: обход от хвоста, без копирования всей истории
+    @Override
+    public List<Task> getHistory(int limit) {
+        int count = Math.min(Math.max(limit, 0), nodeMap.size());
+        Node current = tail;
+        for (int i = 1; i < count; i++) {
+            current = current.prev;
+        }
+        List<Task> recent = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recent.add(current.task);
+            current = current.next;
+        }
+        return recent;
+    }
+}
@@ -4,30 +4,51 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.enums.Status;
+import model.enums.TaskType;
+import util.IntHashMap;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class InMemoryTaskManager implements TaskManager {
     protected int nextId = 1;
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
-    protected final HashMap<Integer, Subtask> subtasks = new HashMap<>();
+    // Хранилища с ключами int без упаковки: ни Integer, ни узла записи на каждую задачу
+    protected final IntHashMap<Task> tasks;
+    protected final IntHashMap<Epic> epics;
+    protected final IntHashMap<Subtask> subtasks;
 
     protected final HistoryManager historyManager;
 
     protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime,
-                            Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparing(Task::getId)
+            ((Comparator<Task>) TimeUtils::compareByStart).thenComparingInt(Task::getId)
     );
 
+    // Индекс интервалов для проверки пересечений за O(log n); эпики в него не попадают
+    protected final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+
+    // Упорядоченные по id индексы с разбиением по статусу для постраничных выборок
+    private final StatusIdIndex taskIds = new StatusIdIndex();
+    private final StatusIdIndex epicIds = new StatusIdIndex();
+    private final StatusIdIndex subtaskIds = new StatusIdIndex();
+
     public InMemoryTaskManager(HistoryManager historyManager) {
-        this.historyManager = historyManager;
+        this(historyManager, 0, 0, 0);
     }
 
     public InMemoryTaskManager() {
-        this.historyManager = Managers.getDefaultHistory();
+        this(Managers.getDefaultHistory());
+    }
+
+    // Хранилища создаются сразу нужного размера, когда количество записей известно заранее (загрузка снимка)
+    protected InMemoryTaskManager(HistoryManager historyManager,
+                                  int expectedTasks, int expectedEpics, int expectedSubtasks) {
+        this.historyManager = historyManager;
+        this.tasks = new IntHashMap<>(expectedTasks);
+        this.epics = new IntHashMap<>(expectedEpics);
+        this.subtasks = new IntHashMap<>(expectedSubtasks);
     }
 
     private int generateId() {
@@ -35,7 +56,7 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     private void validateNoTimeOverlap(Task task) {
-        if (task.getStartTime() != null && TimeUtils.hasTimeOverlap(task, prioritizedTasks)) {
+        if (task.getStartTime() != null && timeIndex.hasOverlap(task)) {
             throw new ManagerValidateException("Задача пересекается по времени с существующей задачей");
         }
     }
@@ -43,15 +64,19 @@ public class InMemoryTaskManager implements TaskManager {
     protected void addToPrioritizedTasks(Task task) {
         if (task.getStartTime() != null) {
             prioritizedTasks.add(task);
+            if (task.getType() != TaskType.EPIC) {
+                timeIndex.add(task);
+            }
         }
     }
 
     private void removeFromPrioritizedTasks(Task task) {
         prioritizedTasks.remove(task);
+        timeIndex.remove(task.getId());
     }
 
     private void updatePrioritizedTask(Task oldTask, Task newTask) {
-        prioritizedTasks.remove(oldTask);
+        removeFromPrioritizedTasks(oldTask);
         addToPrioritizedTasks(newTask);
     }
 
@@ -62,6 +87,7 @@ public class InMemoryTaskManager implements TaskManager {
         }
         validateNoTimeOverlap(task);
         tasks.put(task.getId(), task);
+        taskIds.add(task);
         addToPrioritizedTasks(task);
         return task;
     }
@@ -88,6 +114,7 @@ public class InMemoryTaskManager implements TaskManager {
             Task oldTask = tasks.get(task.getId());
             validateNoTimeOverlap(task);
             tasks.put(task.getId(), task);
+            taskIds.update(task);
             updatePrioritizedTask(oldTask, task);
         }
     }
@@ -96,6 +123,7 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteTaskById(int id) {
         Task removed = tasks.remove(id);
         if (removed != null) {
+            taskIds.remove(id);
             historyManager.remove(id);
             removeFromPrioritizedTasks(removed);
         }
@@ -103,11 +131,12 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllTasks() {
-        for (Integer id : new ArrayList<>(tasks.keySet())) {
+        for (int id : tasks.keys()) {
             historyManager.remove(id);
             removeFromPrioritizedTasks(tasks.get(id));
         }
         tasks.clear();
+        taskIds.clear();
     }
 
     @Override
@@ -115,6 +144,7 @@ public class InMemoryTaskManager implements TaskManager {
         epic.setId(generateId());
         epic.setStatus(Status.NEW);
         epics.put(epic.getId(), epic);
+        epicIds.add(epic);
         return epic;
     }
 
@@ -146,25 +176,31 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpicById(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
+            epicIds.remove(id);
             historyManager.remove(id);
-            for (Integer subtaskId : epic.getSubtaskIds()) {
-                subtasks.remove(subtaskId);
-                historyManager.remove(subtaskId);
-            }
+            epic.forEachSubtaskId(this::removeSubtaskOfEpic);
+        }
+    }
+
+    private void removeSubtaskOfEpic(int subtaskId) {
+        Subtask subtask = subtasks.remove(subtaskId);
+        subtaskIds.remove(subtaskId);
+        historyManager.remove(subtaskId);
+        if (subtask != null) {
+            removeFromPrioritizedTasks(subtask);
         }
     }
 
     @Override
     public void deleteAllEpics() {
-        for (Epic epic : new ArrayList<>(epics.values())) {
+        for (Epic epic : epics.values()) {
             historyManager.remove(epic.getId());
-            for (Integer subtaskId : epic.getSubtaskIds()) {
-                subtasks.remove(subtaskId);
-                historyManager.remove(subtaskId);
-            }
+            epic.forEachSubtaskId(this::removeSubtaskOfEpic);
         }
         epics.clear();
         subtasks.clear();
+        epicIds.clear();
+        subtaskIds.clear();
     }
 
     @Override
@@ -183,17 +219,72 @@ public class InMemoryTaskManager implements TaskManager {
 
         validateNoTimeOverlap(subtask);
         subtasks.put(subtask.getId(), subtask);
+        subtaskIds.add(subtask);
         addToPrioritizedTasks(subtask);
 
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
-            epic.addSubtaskId(subtask.getId());
+            epic.addSubtask(subtask);
             updateEpicStatusAndTime(epic);
         }
 
         return subtask;
     }
 
+    /**
+     * Пакет проверяется целиком до вставки: пересечения внутри пакета — одним проходом по отсортированным
+     * интервалам, с существующими задачами — по индексу интервалов. При ошибке не создается ни одна задача.
+     * Id назначаются заново после проверки, поэтому задача пакета не может заменить существующую.
+     */
+    @Override
+    public List<Task> createTasksBulk(List<Task> batch) {
+        validateBatch(batch);
+        for (Task task : batch) {
+            task.setId(generateId());
+            tasks.put(task.getId(), task);
+            taskIds.add(task);
+            addToPrioritizedTasks(task);
+        }
+        return new ArrayList<>(batch);
+    }
+
+    // Статус и время каждого затронутого эпика пересчитываются один раз, после вставки всего пакета
+    @Override
+    public List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        for (Subtask subtask : batch) {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                throw new NotFoundException(String.format("Эпик с id %d не обнаружен", subtask.getEpicId()));
+            }
+        }
+        validateBatch(batch);
+
+        IntHashMap<Epic> affected = new IntHashMap<>();
+        for (Subtask subtask : batch) {
+            subtask.setId(generateId());
+            subtasks.put(subtask.getId(), subtask);
+            subtaskIds.add(subtask);
+            addToPrioritizedTasks(subtask);
+
+            Epic epic = epics.get(subtask.getEpicId());
+            epic.addSubtask(subtask);
+            affected.put(epic.getId(), epic);
+        }
+        affected.forEachValue(this::updateEpicStatusAndTime);
+        return new ArrayList<>(batch);
+    }
+
+    private void validateBatch(List<? extends Task> batch) {
+        if (TimeUtils.hasMutualOverlap(batch)) {
+            throw new ManagerValidateException("Задачи пакета пересекаются по времени между собой");
+        }
+        for (Task task : batch) {
+            // Задачи пакета еще без id: заданный в них id не должен исключать чей-то интервал из проверки
+            if (task.getStartTime() != null && timeIndex.hasOverlap(task.getStartTime(), task.getEndTime(), 0)) {
+                throw new ManagerValidateException("Задача пересекается по времени с существующей задачей");
+            }
+        }
+    }
+
     @Override
     public Optional<Subtask> getSubtaskById(int id) {
         Subtask subtask = subtasks.get(id);
@@ -227,6 +318,7 @@ public class InMemoryTaskManager implements TaskManager {
             validateNoTimeOverlap(subtask);
 
             subtasks.put(subtask.getId(), subtask);
+            subtaskIds.update(subtask);
             updatePrioritizedTask(oldSubtask, subtask);
 
             if (oldSubtask.getEpicId() != subtask.getEpicId()) {
@@ -238,12 +330,13 @@ public class InMemoryTaskManager implements TaskManager {
 
                 Epic newEpic = epics.get(subtask.getEpicId());
                 if (newEpic != null) {
-                    newEpic.addSubtaskId(subtask.getId());
+                    newEpic.addSubtask(subtask);
                     updateEpicStatusAndTime(newEpic);
                 }
             } else {
                 Epic epic = epics.get(subtask.getEpicId());
                 if (epic != null) {
+                    epic.addSubtask(subtask);
                     updateEpicStatusAndTime(epic);
                 }
             }
@@ -254,6 +347,7 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
+            subtaskIds.remove(id);
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
@@ -266,13 +360,14 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllSubtasks() {
-        for (Integer id : new ArrayList<>(subtasks.keySet())) {
+        for (int id : subtasks.keys()) {
             Subtask subtask = subtasks.remove(id);
             if (subtask != null) {
                 historyManager.remove(id);
                 removeFromPrioritizedTasks(subtask);
             }
         }
+        subtaskIds.clear();
         for (Epic epic : epics.values()) {
             epic.clearSubtasks();
             updateEpicStatusAndTime(epic);
@@ -286,10 +381,48 @@ public class InMemoryTaskManager implements TaskManager {
             return new ArrayList<>();
         }
 
-        return epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<Subtask> result = new ArrayList<>(epic.getSubtaskCount());
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        });
+        return result;
+    }
+
+    // Восстанавливает производные структуры после загрузки хранилищ: приоритеты, счетчик id и связи эпиков
+    protected void rebuildIndexes() {
+        int maxId = 0;
+        for (Task task : tasks.values()) {
+            maxId = Math.max(maxId, task.getId());
+            taskIds.add(task);
+            addToPrioritizedTasks(task);
+        }
+        for (Epic epic : epics.values()) {
+            maxId = Math.max(maxId, epic.getId());
+            epicIds.add(epic);
+            addToPrioritizedTasks(epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            maxId = Math.max(maxId, subtask.getId());
+            subtaskIds.add(subtask);
+            addToPrioritizedTasks(subtask);
+        }
+        nextId = maxId + 1;
+
+        // Восстанавливаем связи Epic-Subtask
+        for (Subtask subtask : subtasks.values()) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtask(subtask);
+            }
+        }
+
+        // Обновляем статусы эпиков
+        for (Epic epic : epics.values()) {
+            updateEpicStatusAndTime(epic);
+        }
     }
 
     protected void updateEpicStatusAndTime(Epic epic) {
@@ -297,40 +430,17 @@ public class InMemoryTaskManager implements TaskManager {
         updateEpicTime(epic);
     }
 
-
+    // Статус и время эпика берутся из агрегатов, которые эпик ведет инкрементально
     protected void updateEpicStatus(Epic epic) {
-        if (epic.getSubtaskIds().isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
-        }
-
-        boolean allDone = true;
-        boolean allNew = true;
-
-        for (Integer subtaskId : epic.getSubtaskIds()) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask == null) continue;
-
-            if (subtask.getStatus() != Status.DONE) {
-                allDone = false;
-            }
-            if (subtask.getStatus() != Status.NEW) {
-                allNew = false;
-            }
-        }
-
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+        Status status = epic.calculateStatus();
+        if (status != epic.getStatus()) {
+            epic.setStatus(status);
+            epicIds.update(epic);
         }
     }
 
     protected void updateEpicTime(Epic epic) {
-        List<Subtask> epicSubtasks = getSubtasksByEpicId(epic.getId());
-        epic.calculateTimeFields(epicSubtasks);
+        epic.calculateTimeFields();
     }
 
     @Override
@@ -338,6 +448,11 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return prioritizedTasks.stream()
@@ -345,6 +460,141 @@ public class InMemoryTaskManager implements TaskManager {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        for (Task task : prioritizedTasks) {
+            if (task.getStartTime() != null) {
+                action.accept(task);
+            }
+        }
+    }
+
+    // Выборки по статусу читают корзину индекса, счетчики — ее размер за O(1)
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return byStatus(taskIds, tasks, status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return byStatus(epicIds, epics, status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return byStatus(subtaskIds, subtasks, status);
+    }
+
+    @Override
+    public int countTasksByStatus(Status status) {
+        return taskIds.count(status);
+    }
+
+    @Override
+    public int countEpicsByStatus(Status status) {
+        return epicIds.count(status);
+    }
+
+    @Override
+    public int countSubtasksByStatus(Status status) {
+        return subtaskIds.count(status);
+    }
+
+    private static <T extends Task> List<T> byStatus(StatusIdIndex index, IntHashMap<T> storage, Status status) {
+        List<T> result = new ArrayList<>(index.count(status));
+        index.forEach(status, id -> result.add(storage.get(id)));
+        return result;
+    }
+
+    @Override
+    public Page<Task> findTasks(TaskQuery query) {
+        return pageById(taskIds, tasks, query);
+    }
+
+    @Override
+    public Page<Epic> findEpics(TaskQuery query) {
+        return pageById(epicIds, epics, query);
+    }
+
+    @Override
+    public Page<Subtask> findSubtasks(TaskQuery query) {
+        return pageById(subtaskIds, subtasks, query);
+    }
+
+    // Страница начинается с tailSet приоритетного списка и обрывается на границе окна времени
+    @Override
+    public Page<Task> findPrioritized(TaskQuery query) {
+        LocalDateTime afterTime = query.afterStartTime();
+        NavigableSet<Task> candidates;
+        if (afterTime != null && (query.getFrom() == null || !afterTime.isBefore(query.getFrom()))) {
+            candidates = prioritizedTasks.tailSet(probe(afterTime, query.afterStartId()), false);
+        } else if (query.getFrom() != null) {
+            candidates = prioritizedTasks.tailSet(probe(query.getFrom(), Integer.MIN_VALUE), true);
+        } else {
+            candidates = prioritizedTasks;
+        }
+
+        Page.Collector<Task> collector = new Page.Collector<>(query, TaskQuery::timeCursor);
+        for (Task task : candidates) {
+            LocalDateTime startTime = task.getStartTime();
+            if (startTime == null || query.getTo() != null && !startTime.isBefore(query.getTo())) {
+                break;
+            }
+            if (!collector.offer(task)) {
+                break;
+            }
+        }
+        return collector.toPage();
+    }
+
+    // Фильтр по статусу выбирает корзину индекса; тип и окно времени проверяются на кандидатах
+    private <T extends Task> Page<T> pageById(StatusIdIndex index, IntHashMap<T> storage, TaskQuery query) {
+        Page.Collector<T> collector = new Page.Collector<>(query, TaskQuery::idCursor);
+        index.forEachAfter(query.getStatus(), query.afterId(), id -> collector.offer(storage.get(id)));
+        return collector.toPage();
+    }
+
+    /**
+     * Обход приоритетного списка с from через tailSet, без просмотра задач до него: момент from может занимать
+     * только последняя начавшаяся раньше задача ненулевой длительности, она находится обратным обходом headSet
+     * мимо эпиков и задач-точек.
+     * <p>
+     * Обратный обход не ограничен: если до from начинается много эпиков или задач нулевой длительности подряд,
+     * он проходит их все, и в худшем случае поиск стоит O(n).
+     */
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, Duration duration, int limit) {
+        TimeUtils.checkSlotQuery(duration, limit);
+        Task start = probe(from, Integer.MIN_VALUE);
+        Task previous = null;
+        for (Task task : prioritizedTasks.headSet(start, false).descendingSet()) {
+            if (task.getType() != TaskType.EPIC && task.getEndTime().isAfter(task.getStartTime())) {
+                previous = task;
+                break;
+            }
+        }
+        return TimeUtils.freeSlots(previous, prioritizedTasks.tailSet(start, true), from, duration, limit);
+    }
+
+    private static Task probe(LocalDateTime startTime, int id) {
+        return new Task(null, null, id, null, Duration.ZERO, startTime);
+    }
+
     // Новые методы, которые бросают исключения (для http обработчиков)
     @Override
     public Task getTaskOrThrow(int id) throws NotFoundException {
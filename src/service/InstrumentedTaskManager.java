@@ -0,0 +1,352 @@
+package service;
+
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Декоратор менеджера, замеряющий длительность каждой операции в гистограмму
+ * {@code task_manager_operation_duration_seconds{operation=...}}; количество вызовов — ее _count.
+ * <p>
+ * Все методы, включая методы по умолчанию, передаются обернутому менеджеру, поэтому его
+ * оптимизированные реализации (индексы, постраничные выборки) сохраняются. Синхронизацию
+ * обеспечивает обернутый менеджер.
+ */
+public class InstrumentedTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final Timer createTaskTimer;
+    private final Timer getTaskByIdTimer;
+    private final Timer getAllTasksTimer;
+    private final Timer updateTaskTimer;
+    private final Timer deleteTaskByIdTimer;
+    private final Timer deleteAllTasksTimer;
+    private final Timer createEpicTimer;
+    private final Timer getEpicByIdTimer;
+    private final Timer getAllEpicsTimer;
+    private final Timer updateEpicTimer;
+    private final Timer deleteEpicByIdTimer;
+    private final Timer deleteAllEpicsTimer;
+    private final Timer createSubtaskTimer;
+    private final Timer createTasksBulkTimer;
+    private final Timer createSubtasksBulkTimer;
+    private final Timer getSubtaskByIdTimer;
+    private final Timer getAllSubtasksTimer;
+    private final Timer updateSubtaskTimer;
+    private final Timer deleteSubtaskByIdTimer;
+    private final Timer deleteAllSubtasksTimer;
+    private final Timer getSubtasksByEpicIdTimer;
+    private final Timer getHistoryTimer;
+    private final Timer getPrioritizedTasksTimer;
+    private final Timer forEachTaskTimer;
+    private final Timer forEachEpicTimer;
+    private final Timer forEachSubtaskTimer;
+    private final Timer forEachPrioritizedTimer;
+    private final Timer getByStatusTimer;
+    private final Timer countByStatusTimer;
+    private final Timer findTasksTimer;
+    private final Timer findEpicsTimer;
+    private final Timer findSubtasksTimer;
+    private final Timer findPrioritizedTimer;
+    private final Timer findFreeSlotsTimer;
+    private final Timer placeTaskTimer;
+    private final Timer placeSubtaskTimer;
+
+    public InstrumentedTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.createTaskTimer = timer(registry, "createTask");
+        this.getTaskByIdTimer = timer(registry, "getTaskById");
+        this.getAllTasksTimer = timer(registry, "getAllTasks");
+        this.updateTaskTimer = timer(registry, "updateTask");
+        this.deleteTaskByIdTimer = timer(registry, "deleteTaskById");
+        this.deleteAllTasksTimer = timer(registry, "deleteAllTasks");
+        this.createEpicTimer = timer(registry, "createEpic");
+        this.getEpicByIdTimer = timer(registry, "getEpicById");
+        this.getAllEpicsTimer = timer(registry, "getAllEpics");
+        this.updateEpicTimer = timer(registry, "updateEpic");
+        this.deleteEpicByIdTimer = timer(registry, "deleteEpicById");
+        this.deleteAllEpicsTimer = timer(registry, "deleteAllEpics");
+        this.createSubtaskTimer = timer(registry, "createSubtask");
+        this.createTasksBulkTimer = timer(registry, "createTasksBulk");
+        this.createSubtasksBulkTimer = timer(registry, "createSubtasksBulk");
+        this.getSubtaskByIdTimer = timer(registry, "getSubtaskById");
+        this.getAllSubtasksTimer = timer(registry, "getAllSubtasks");
+        this.updateSubtaskTimer = timer(registry, "updateSubtask");
+        this.deleteSubtaskByIdTimer = timer(registry, "deleteSubtaskById");
+        this.deleteAllSubtasksTimer = timer(registry, "deleteAllSubtasks");
+        this.getSubtasksByEpicIdTimer = timer(registry, "getSubtasksByEpicId");
+        this.getHistoryTimer = timer(registry, "getHistory");
+        this.getPrioritizedTasksTimer = timer(registry, "getPrioritizedTasks");
+        this.forEachTaskTimer = timer(registry, "forEachTask");
+        this.forEachEpicTimer = timer(registry, "forEachEpic");
+        this.forEachSubtaskTimer = timer(registry, "forEachSubtask");
+        this.forEachPrioritizedTimer = timer(registry, "forEachPrioritized");
+        this.getByStatusTimer = timer(registry, "getByStatus");
+        this.countByStatusTimer = timer(registry, "countByStatus");
+        this.findTasksTimer = timer(registry, "findTasks");
+        this.findEpicsTimer = timer(registry, "findEpics");
+        this.findSubtasksTimer = timer(registry, "findSubtasks");
+        this.findPrioritizedTimer = timer(registry, "findPrioritized");
+        this.findFreeSlotsTimer = timer(registry, "findFreeSlots");
+        this.placeTaskTimer = timer(registry, "placeTask");
+        this.placeSubtaskTimer = timer(registry, "placeSubtask");
+    }
+
+    private static Timer timer(MetricsRegistry registry, String operation) {
+        return registry.timer("task_manager_operation_duration_seconds",
+                "Длительность операции менеджера задач", "operation", operation);
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    private static <T> T timed(Timer timer, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer.recordSince(started);
+        }
+    }
+
+    private static void timed(Timer timer, Runnable call) {
+        long started = System.nanoTime();
+        try {
+            call.run();
+        } finally {
+            timer.recordSince(started);
+        }
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return timed(createTaskTimer, () -> delegate.createTask(task));
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return timed(getTaskByIdTimer, () -> delegate.getTaskById(id));
+    }
+
+    @Override
+    public ArrayList<Task> getAllTasks() {
+        return timed(getAllTasksTimer, delegate::getAllTasks);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        timed(updateTaskTimer, () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        timed(deleteTaskByIdTimer, () -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        timed(deleteAllTasksTimer, delegate::deleteAllTasks);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return timed(createEpicTimer, () -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return timed(getEpicByIdTimer, () -> delegate.getEpicById(id));
+    }
+
+    @Override
+    public ArrayList<Epic> getAllEpics() {
+        return timed(getAllEpicsTimer, delegate::getAllEpics);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        timed(updateEpicTimer, () -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        timed(deleteEpicByIdTimer, () -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        timed(deleteAllEpicsTimer, delegate::deleteAllEpics);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return timed(createSubtaskTimer, () -> delegate.createSubtask(subtask));
+    }
+
+    @Override
+    public List<Task> createTasksBulk(List<Task> batch) {
+        return timed(createTasksBulkTimer, () -> delegate.createTasksBulk(batch));
+    }
+
+    @Override
+    public List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        return timed(createSubtasksBulkTimer, () -> delegate.createSubtasksBulk(batch));
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        return timed(getSubtaskByIdTimer, () -> delegate.getSubtaskById(id));
+    }
+
+    @Override
+    public ArrayList<Subtask> getAllSubtasks() {
+        return timed(getAllSubtasksTimer, delegate::getAllSubtasks);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        timed(updateSubtaskTimer, () -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        timed(deleteSubtaskByIdTimer, () -> delegate.deleteSubtaskById(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        timed(deleteAllSubtasksTimer, delegate::deleteAllSubtasks);
+    }
+
+    @Override
+    public ArrayList<Subtask> getSubtasksByEpicId(int epicId) {
+        return timed(getSubtasksByEpicIdTimer, () -> delegate.getSubtasksByEpicId(epicId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return timed(getHistoryTimer, () -> delegate.getHistory());
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return timed(getHistoryTimer, () -> delegate.getHistory(limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timed(getPrioritizedTasksTimer, delegate::getPrioritizedTasks);
+    }
+
+    // Варианты с исключением замеряются вместе с соответствующими get*ById
+    @Override
+    public Task getTaskOrThrow(int id) throws NotFoundException {
+        return timed(getTaskByIdTimer, () -> delegate.getTaskOrThrow(id));
+    }
+
+    @Override
+    public Epic getEpicOrThrow(int id) throws NotFoundException {
+        return timed(getEpicByIdTimer, () -> delegate.getEpicOrThrow(id));
+    }
+
+    @Override
+    public Subtask getSubtaskOrThrow(int id) throws NotFoundException {
+        return timed(getSubtaskByIdTimer, () -> delegate.getSubtaskOrThrow(id));
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        timed(forEachTaskTimer, () -> delegate.forEachTask(action));
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        timed(forEachEpicTimer, () -> delegate.forEachEpic(action));
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        timed(forEachSubtaskTimer, () -> delegate.forEachSubtask(action));
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        timed(forEachPrioritizedTimer, () -> delegate.forEachPrioritized(action));
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return timed(getByStatusTimer, () -> delegate.getTasksByStatus(status));
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return timed(getByStatusTimer, () -> delegate.getEpicsByStatus(status));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return timed(getByStatusTimer, () -> delegate.getSubtasksByStatus(status));
+    }
+
+    @Override
+    public int countTasksByStatus(Status status) {
+        return timed(countByStatusTimer, () -> delegate.countTasksByStatus(status));
+    }
+
+    @Override
+    public int countEpicsByStatus(Status status) {
+        return timed(countByStatusTimer, () -> delegate.countEpicsByStatus(status));
+    }
+
+    @Override
+    public int countSubtasksByStatus(Status status) {
+        return timed(countByStatusTimer, () -> delegate.countSubtasksByStatus(status));
+    }
+
+    @Override
+    public Page<Task> findTasks(TaskQuery query) {
+        return timed(findTasksTimer, () -> delegate.findTasks(query));
+    }
+
+    @Override
+    public Page<Epic> findEpics(TaskQuery query) {
+        return timed(findEpicsTimer, () -> delegate.findEpics(query));
+    }
+
+    @Override
+    public Page<Subtask> findSubtasks(TaskQuery query) {
+        return timed(findSubtasksTimer, () -> delegate.findSubtasks(query));
+    }
+
+    @Override
+    public Page<Task> findPrioritized(TaskQuery query) {
+        return timed(findPrioritizedTimer, () -> delegate.findPrioritized(query));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, Duration duration, int limit) {
+        return timed(findFreeSlotsTimer, () -> delegate.findFreeSlots(from, duration, limit));
+    }
+
+    @Override
+    public Task placeTask(Task task, LocalDateTime notBefore) {
+        return timed(placeTaskTimer, () -> delegate.placeTask(task, notBefore));
+    }
+
+    @Override
+    public Subtask placeSubtask(Subtask subtask, LocalDateTime notBefore) {
+        return timed(placeSubtaskTimer, () -> delegate.placeSubtask(subtask, notBefore));
+    }
+}
@@ -2,6 +2,8 @@ package service;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 
 public class Managers {
     private Managers() {
@@ -12,6 +14,10 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static TaskManager getDefaultFileBacked() {
         try {
             File tempFile = File.createTempFile("tasks", ".csv");
@@ -25,7 +31,38 @@ public class Managers {
         return new FileBackedTaskManager(file);
     }
 
+    public static FileBackedTaskManager getFileBacked(File file, SnapshotFormat snapshotFormat) {
+        return new FileBackedTaskManager(file, snapshotFormat);
+    }
+
+    public static FileBackedTaskManager getJournaled(File file) {
+        return new FileBackedTaskManager(file, TaskJournal.SyncPolicy.INTERVAL, 1000, 10_000);
+    }
+
+    public static FileBackedTaskManager getGroupCommitted(File file) {
+        return new FileBackedTaskManager(file, 100, 1000);
+    }
+
+    public static MappedTaskManager getMapped(Path directory) {
+        return new MappedTaskManager(directory);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    // История с LRU-вытеснением сверх capacity записей
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    // Запись просмотров через кольцевой буфер и фоновый поток; история ограничена capacity записями
+    public static AsyncHistoryManager getAsyncHistory(int capacity) {
+        return new AsyncHistoryManager(new InMemoryHistoryManager(capacity));
+    }
+
+    // История по клиентам: до maxClients разделов по capacity записей, простаивающие удаляются
+    public static PartitionedHistoryManager getPartitionedHistory(int capacity, int maxClients, Duration idleTimeout) {
+        return new PartitionedHistoryManager(capacity, maxClients, idleTimeout);
+    }
 }
\ No newline at end of file
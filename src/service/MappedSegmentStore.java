@@ -0,0 +1,357 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import model.enums.TaskType;
+import util.IntIntMap;
+import util.IntList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Хранилище задач в слотах фиксированного размера внутри файлов, отображенных в память.
+ * <p>
+ * Каталог содержит сегменты {@code segment-NNNNN.dat}: заголовок сегмента (сигнатура, версия,
+ * размер слота, число слотов) и слоты. Изменение задачи записывает один слот, удаление — только
+ * байт состояния, поэтому стоимость записи не зависит от размера доски.
+ * <p>
+ * Раскладка слота: состояние, тип, статус + 1, признак времени начала, id, id эпика,
+ * секунды и наносекунды эпохи (UTC), продолжительность в минутах, длины названия и описания
+ * (-1 — null), номер версии, CRC32 слота, затем байты UTF-8 названия и описания.
+ * <p>
+ * Слот занятой задачи не переписывается на месте: новая версия пишется в свободный слот, помечается
+ * занятой и только потом освобождает прежний. Сбой процесса посреди записи оставляет целой старую версию;
+ * если после сбоя заняты оба слота, загрузка берет версию с большим номером, а слот с неверной контрольной
+ * суммой (например, сброшенный на диск не целиком) пропускает. Порядок сброса страниц на диск без
+ * {@link #force()} не гарантирован, поэтому изменения после последнего force при отключении питания
+ * могут потеряться.
+ * <p>
+ * На куче держатся только индекс id -> слот и стек свободных слотов, оба без упаковки.
+ */
+public class MappedSegmentStore implements AutoCloseable {
+    private static final int MAGIC = 0x4A4B5347;
+    private static final int VERSION = 2;
+    private static final int SEGMENT_HEADER = 16;
+
+    private static final int STATE = 0;
+    private static final int TYPE = 1;
+    private static final int STATUS = 2;
+    private static final int HAS_START = 3;
+    private static final int ID = 4;
+    private static final int EPIC_ID = 8;
+    private static final int START_SECOND = 12;
+    private static final int START_NANO = 20;
+    private static final int DURATION = 24;
+    private static final int TITLE_LENGTH = 32;
+    private static final int DESCRIPTION_LENGTH = 36;
+    private static final int SEQUENCE = 40;
+    private static final int CHECKSUM = 48;
+    private static final int SLOT_HEADER = 56;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Path directory;
+    private final int slotSize;
+    private final int slotsPerSegment;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // id задачи -> глобальный номер слота (сегмент * slotsPerSegment + слот)
+    private final IntIntMap slotById = new IntIntMap();
+    // Свободные слоты стеком
+    private final IntList freeSlots = new IntList();
+    // Номер следующей версии слота: у более поздней записи задачи он больше
+    private long nextSequence = 1;
+
+    public MappedSegmentStore(Path directory, int slotSize, int slotsPerSegment) {
+        if (slotSize < SLOT_HEADER + 2 || slotsPerSegment <= 0
+                || SEGMENT_HEADER + (long) slotSize * slotsPerSegment > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Неверные размеры слотов: " + slotSize + " x " + slotsPerSegment);
+        }
+        this.directory = directory;
+        this.slotSize = slotSize;
+        this.slotsPerSegment = slotsPerSegment;
+        try {
+            Files.createDirectories(directory);
+            for (int index = 0; Files.exists(segmentPath(index)); index++) {
+                segments.add(map(segmentPath(index), false));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка открытия сегментов хранилища", e);
+        }
+    }
+
+    /**
+     * Просматривает все сегменты, строит индекс id -> слот и передает задачи из занятых слотов.
+     * Первый проход читает только заголовки слотов: из нескольких версий одной задачи остается последняя,
+     * слоты с неверной контрольной суммой освобождаются. Второй проход декодирует оставшиеся слоты.
+     * Вызывается один раз сразу после открытия хранилища.
+     *
+     * @return количество загруженных задач
+     */
+    public int load(Consumer<Task> consumer) {
+        slotById.clear();
+        freeSlots.clear();
+        nextSequence = 1;
+        // Стек отдает слоты с меньшими номерами первыми
+        for (int segment = segments.size() - 1; segment >= 0; segment--) {
+            MappedByteBuffer buffer = segments.get(segment);
+            for (int slot = slotsPerSegment - 1; slot >= 0; slot--) {
+                int globalSlot = segment * slotsPerSegment + slot;
+                int offset = slotOffset(slot);
+                if (buffer.get(offset + STATE) != USED) {
+                    freeSlots.add(globalSlot);
+                } else if (!checksumMatches(buffer, offset)) {
+                    release(globalSlot);
+                } else {
+                    index(globalSlot, buffer.getInt(offset + ID), buffer.getLong(offset + SEQUENCE));
+                }
+            }
+        }
+        for (int segment = 0; segment < segments.size(); segment++) {
+            MappedByteBuffer buffer = segments.get(segment);
+            for (int slot = 0; slot < slotsPerSegment; slot++) {
+                int offset = slotOffset(slot);
+                if (buffer.get(offset + STATE) == USED
+                        && slotById.get(buffer.getInt(offset + ID)) == segment * slotsPerSegment + slot) {
+                    consumer.accept(decode(buffer, offset));
+                }
+            }
+        }
+        return slotById.size();
+    }
+
+    // Оставляет в индексе более позднюю из двух версий задачи, другую освобождает
+    private void index(int globalSlot, int id, long sequence) {
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        int previous = slotById.get(id);
+        if (previous != IntIntMap.MISSING) {
+            MappedByteBuffer buffer = segments.get(previous / slotsPerSegment);
+            if (buffer.getLong(slotOffset(previous % slotsPerSegment) + SEQUENCE) > sequence) {
+                release(globalSlot);
+                return;
+            }
+            release(previous);
+        }
+        slotById.put(id, globalSlot);
+    }
+
+    public int size() {
+        return slotById.size();
+    }
+
+    // Бросает исключение, если задача не помещается в слот; вызывается до изменения состояния менеджера
+    public void checkFits(Task task) {
+        requireFits(task, SLOT_HEADER + byteLength(task.getTitle()) + byteLength(task.getDescription()));
+    }
+
+    // Записывает новую версию задачи в свободный слот и затем освобождает прежний
+    public void put(Task task) {
+        byte[] title = bytes(task.getTitle());
+        byte[] description = bytes(task.getDescription());
+        requireFits(task, SLOT_HEADER + (title != null ? title.length : 0)
+                + (description != null ? description.length : 0));
+
+        int previous = slotById.get(task.getId());
+        int globalSlot = allocate();
+        MappedByteBuffer buffer = segments.get(globalSlot / slotsPerSegment);
+        int offset = slotOffset(globalSlot % slotsPerSegment);
+
+        buffer.put(offset + TYPE, (byte) task.getType().ordinal());
+        buffer.put(offset + STATUS, (byte) (task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1));
+        buffer.putInt(offset + ID, task.getId());
+        buffer.putInt(offset + EPIC_ID, task instanceof Subtask ? ((Subtask) task).getEpicId() : 0);
+        LocalDateTime startTime = task.getStartTime();
+        buffer.put(offset + HAS_START, (byte) (startTime != null ? 1 : 0));
+        buffer.putLong(offset + START_SECOND, startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : 0);
+        buffer.putInt(offset + START_NANO, startTime != null ? startTime.getNano() : 0);
+        buffer.putLong(offset + DURATION, task.getDuration().toMinutes());
+
+        int position = offset + SLOT_HEADER;
+        buffer.putInt(offset + TITLE_LENGTH, title != null ? title.length : -1);
+        if (title != null) {
+            buffer.put(position, title);
+            position += title.length;
+        }
+        buffer.putInt(offset + DESCRIPTION_LENGTH, description != null ? description.length : -1);
+        if (description != null) {
+            buffer.put(position, description);
+        }
+        buffer.putLong(offset + SEQUENCE, nextSequence++);
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+
+        // Слот становится видимым при загрузке только после записи всего содержимого,
+        // а прежняя версия освобождается только после этого
+        buffer.put(offset + STATE, USED);
+        if (previous != IntIntMap.MISSING) {
+            release(previous);
+        }
+        slotById.put(task.getId(), globalSlot);
+    }
+
+    public void remove(int id) {
+        int globalSlot = slotById.remove(id);
+        if (globalSlot != IntIntMap.MISSING) {
+            release(globalSlot);
+        }
+    }
+
+    // Сбрасывает измененные страницы всех сегментов на диск
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void requireFits(Task task, int length) {
+        if (length > slotSize) {
+            throw new ManagerSaveException("Задача '" + task.getTitle() + "' занимает " + length
+                    + " байт и не помещается в слот размером " + slotSize);
+        }
+    }
+
+    private void release(int globalSlot) {
+        MappedByteBuffer buffer = segments.get(globalSlot / slotsPerSegment);
+        buffer.put(slotOffset(globalSlot % slotsPerSegment) + STATE, FREE);
+        freeSlots.add(globalSlot);
+    }
+
+    private int allocate() {
+        if (freeSlots.isEmpty()) {
+            int segment = segments.size();
+            try {
+                segments.add(map(segmentPath(segment), true));
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка создания сегмента хранилища", e);
+            }
+            for (int slot = slotsPerSegment - 1; slot >= 0; slot--) {
+                freeSlots.add(segment * slotsPerSegment + slot);
+            }
+        }
+        return freeSlots.removeLast();
+    }
+
+    // CRC32 всего слота, кроме байта состояния и самой суммы; -1 в длинах — null
+    private int checksum(ByteBuffer buffer, int offset) {
+        int content = Math.max(buffer.getInt(offset + TITLE_LENGTH), 0)
+                + Math.max(buffer.getInt(offset + DESCRIPTION_LENGTH), 0);
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.clear().position(offset + TYPE).limit(offset + CHECKSUM);
+        crc.update(view);
+        view.clear().position(offset + SLOT_HEADER).limit(offset + SLOT_HEADER + content);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private boolean checksumMatches(ByteBuffer buffer, int offset) {
+        int titleLength = buffer.getInt(offset + TITLE_LENGTH);
+        int descriptionLength = buffer.getInt(offset + DESCRIPTION_LENGTH);
+        if (titleLength < -1 || descriptionLength < -1
+                || (long) Math.max(titleLength, 0) + Math.max(descriptionLength, 0) > slotSize - SLOT_HEADER) {
+            return false;
+        }
+        return buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset);
+    }
+
+    private Task decode(ByteBuffer buffer, int offset) {
+        int typeOrdinal = buffer.get(offset + TYPE);
+        int statusOrdinal = buffer.get(offset + STATUS);
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length || statusOrdinal < 0 || statusOrdinal > STATUSES.length) {
+            throw new ManagerSaveException("Поврежденный слот хранилища по смещению " + offset);
+        }
+        Status status = statusOrdinal == 0 ? null : STATUSES[statusOrdinal - 1];
+        int id = buffer.getInt(offset + ID);
+        LocalDateTime startTime = buffer.get(offset + HAS_START) == 0 ? null
+                : LocalDateTime.ofEpochSecond(buffer.getLong(offset + START_SECOND),
+                buffer.getInt(offset + START_NANO), ZoneOffset.UTC);
+        Duration duration = Duration.ofMinutes(buffer.getLong(offset + DURATION));
+
+        int position = offset + SLOT_HEADER;
+        int titleLength = buffer.getInt(offset + TITLE_LENGTH);
+        String title = string(buffer, position, titleLength);
+        position += Math.max(titleLength, 0);
+        String description = string(buffer, position, buffer.getInt(offset + DESCRIPTION_LENGTH));
+
+        switch (TYPES[typeOrdinal]) {
+            case EPIC:
+                return new Epic(title, description, id, status, duration, startTime, null);
+            case SUBTASK:
+                return new Subtask(title, description, id, status, buffer.getInt(offset + EPIC_ID),
+                        duration, startTime);
+            default:
+                return new Task(title, description, id, status, duration, startTime);
+        }
+    }
+
+    private String string(ByteBuffer buffer, int position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer map(Path path, boolean create) throws IOException {
+        long size = SEGMENT_HEADER + (long) slotSize * slotsPerSegment;
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (!create && channel.size() != size) {
+                throw new ManagerSaveException("Размер сегмента " + path + " не совпадает с раскладкой слотов");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (create) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, slotSize);
+                buffer.putInt(12, slotsPerSegment);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != slotSize || buffer.getInt(12) != slotsPerSegment) {
+                throw new ManagerSaveException("Сегмент " + path + " записан в другом формате");
+            }
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%05d.dat", index));
+    }
+
+    private int slotOffset(int slot) {
+        return SEGMENT_HEADER + slot * slotSize;
+    }
+
+    private static int byteLength(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
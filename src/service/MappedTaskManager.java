@@ -0,0 +1,177 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Менеджер задач с сохранением в {@link MappedSegmentStore}: каждая задача лежит в своем слоте
+ * отображенного в память файла, и изменение записывает только один слот, а не всю доску.
+ * <p>
+ * По сути это файловый менеджер с другим форматом на диске, а не хранилище вне кучи: вся доска,
+ * как в {@link InMemoryTaskManager}, живет в куче, и чтения обслуживаются оттуда. При открытии
+ * декодируются все занятые слоты — без разбора текста, но за время, пропорциональное размеру хранилища.
+ * Статус и время эпика в его слоте не обновляются при изменении подзадач —
+ * они вычисляются заново по подзадачам при открытии.
+ */
+public class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    public static final int DEFAULT_SLOT_SIZE = 512;
+    public static final int DEFAULT_SLOTS_PER_SEGMENT = 16_384;
+
+    private final MappedSegmentStore store;
+
+    public MappedTaskManager(Path directory) {
+        this(directory, DEFAULT_SLOT_SIZE, DEFAULT_SLOTS_PER_SEGMENT);
+    }
+
+    public MappedTaskManager(Path directory, int slotSize, int slotsPerSegment) {
+        this.store = new MappedSegmentStore(directory, slotSize, slotsPerSegment);
+        store.load(this::putLoaded);
+        rebuildIndexes();
+    }
+
+    private void putLoaded(Task task) {
+        if (task instanceof Epic) {
+            epics.put(task.getId(), (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    // Сбрасывает измененные страницы на диск; без вызова запись остается на усмотрение ОС
+    public void force() {
+        store.force();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        store.checkFits(task);
+        Task createdTask = super.createTask(task);
+        store.put(createdTask);
+        return createdTask;
+    }
+
+    // Размер проверяется для всего пакета заранее, чтобы не отвергать его после вставки в память
+    @Override
+    public List<Task> createTasksBulk(List<Task> batch) {
+        batch.forEach(store::checkFits);
+        List<Task> created = super.createTasksBulk(batch);
+        created.forEach(store::put);
+        return created;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        store.checkFits(task);
+        super.updateTask(task);
+        putIfPresent(tasks.get(task.getId()));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        super.deleteTaskById(id);
+        store.remove(id);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        int[] ids = tasks.keys();
+        super.deleteAllTasks();
+        removeAll(ids);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        store.checkFits(epic);
+        Epic createdEpic = super.createEpic(epic);
+        store.put(createdEpic);
+        return createdEpic;
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        store.checkFits(epic);
+        super.updateEpic(epic);
+        putIfPresent(epics.get(epic.getId()));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        Epic epic = epics.get(id);
+        List<Integer> ids = new ArrayList<>();
+        ids.add(id);
+        if (epic != null) {
+            ids.addAll(epic.getSubtaskIds());
+        }
+        super.deleteEpicById(id);
+        ids.forEach(store::remove);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        int[] epicIds = epics.keys();
+        int[] subtaskIds = subtasks.keys();
+        super.deleteAllEpics();
+        removeAll(epicIds);
+        removeAll(subtaskIds);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        store.checkFits(subtask);
+        Subtask createdSubtask = super.createSubtask(subtask);
+        store.put(createdSubtask);
+        return createdSubtask;
+    }
+
+    @Override
+    public List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        batch.forEach(store::checkFits);
+        List<Subtask> created = super.createSubtasksBulk(batch);
+        created.forEach(store::put);
+        return created;
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        store.checkFits(subtask);
+        super.updateSubtask(subtask);
+        putIfPresent(subtasks.get(subtask.getId()));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        super.deleteSubtaskById(id);
+        store.remove(id);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        int[] ids = subtasks.keys();
+        super.deleteAllSubtasks();
+        removeAll(ids);
+    }
+
+    private void removeAll(int[] ids) {
+        for (int id : ids) {
+            store.remove(id);
+        }
+    }
+
+    private void putIfPresent(Task task) {
+        if (task != null) {
+            store.put(task);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package service;
+
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результата {@link TaskQuery}: задачи и курсор следующей страницы
+ * (null, если страница последняя).
+ */
+public class Page<T extends Task> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Страница по id полным просмотром копии — для менеджеров без упорядоченных индексов, O(n log n)
+    static <T extends Task> Page<T> scanById(Collection<T> all, TaskQuery query) {
+        int afterId = query.afterId();
+        List<T> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparingInt(Task::getId));
+        Collector<T> collector = new Collector<>(query, TaskQuery::idCursor);
+        for (T task : sorted) {
+            if (task.getId() > afterId && !collector.offer(task)) {
+                break;
+            }
+        }
+        return collector.toPage();
+    }
+
+    // Страница приоритетного списка, уже упорядоченного по времени начала и id, полным просмотром
+    static Page<Task> scanByTime(List<Task> prioritized, TaskQuery query) {
+        LocalDateTime afterTime = query.afterStartTime();
+        int afterId = query.afterStartId();
+        Collector<Task> collector = new Collector<>(query, TaskQuery::timeCursor);
+        for (Task task : prioritized) {
+            if (afterTime != null) {
+                int compare = task.getStartTime().compareTo(afterTime);
+                if (compare < 0 || compare == 0 && task.getId() <= afterId) {
+                    continue;
+                }
+            }
+            if (!collector.offer(task)) {
+                break;
+            }
+        }
+        return collector.toPage();
+    }
+
+    /**
+     * Набирает страницу из кандидатов, идущих в порядке курсора: отбрасывает не прошедшие фильтры
+     * и останавливается на первом подходящем кандидате сверх limit — он означает, что есть следующая страница.
+     */
+    static class Collector<T extends Task> {
+        private final TaskQuery query;
+        private final Function<Task, String> cursor;
+        private final List<T> items = new ArrayList<>();
+        private boolean hasMore;
+
+        Collector(TaskQuery query, Function<Task, String> cursor) {
+            this.query = query;
+            this.cursor = cursor;
+        }
+
+        // false — страница набрана, обход можно прекращать
+        boolean offer(T task) {
+            if (task == null || !query.matches(task)) {
+                return true;
+            }
+            if (items.size() == query.getLimit()) {
+                hasMore = true;
+                return false;
+            }
+            items.add(task);
+            return true;
+        }
+
+        Page<T> toPage() {
+            return new Page<>(items, hasMore ? cursor.apply(items.get(items.size() - 1)) : null);
+        }
+    }
+}
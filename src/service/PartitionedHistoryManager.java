@@ -0,0 +1,225 @@
+package service;
+
+import model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * История просмотров, разделенная по клиентам: у каждого клиента своя ограниченная LRU-история.
+ * <p>
+ * Клиент текущего потока задается {@link #setCurrentClient} (HTTP-сервер берет его из заголовка запроса);
+ * без него просмотры попадают в общий раздел {@link #DEFAULT_CLIENT}. Каталог разделов — ConcurrentHashMap:
+ * поиск раздела не блокируется, новый раздел создается computeIfAbsent. Замок есть только у самого раздела,
+ * поэтому запись и чтение разных клиентов не конкурируют.
+ * <p>
+ * Память ограничена: не больше maxClients разделов по partitionCapacity записей. Вытеснение вынесено
+ * с пути запроса в амортизированную очистку, которую выполняет один поток: простаивающие дольше idleTimeout
+ * разделы удаляются раз в четверть таймаута, а при превышении maxClients давно не использованные
+ * разделы удаляются пачкой с запасом, так что полный проход по каталогу приходится на много созданий.
+ * Пока очистка идет, разделов может быть на несколько больше maxClients. Просмотр, записанный в
+ * только что вытесненный раздел, теряется вместе с ним.
+ */
+public class PartitionedHistoryManager implements HistoryManager {
+    public static final String DEFAULT_CLIENT = "";
+
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private static final class Partition {
+        final InMemoryHistoryManager history;
+        volatile long lastAccess;
+
+        Partition(int capacity, long now) {
+            this.history = new InMemoryHistoryManager(capacity);
+            this.lastAccess = now;
+        }
+    }
+
+    private final int partitionCapacity;
+    private final int maxClients;
+    // До скольких разделов сокращается каталог при переполнении: запас делает проход амортизированным
+    private final int evictionTarget;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+    // Очистку выполняет один поток; остальные ее не ждут
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    public PartitionedHistoryManager(int partitionCapacity, int maxClients, Duration idleTimeout) {
+        this(partitionCapacity, maxClients, idleTimeout, System::nanoTime);
+    }
+
+    PartitionedHistoryManager(int partitionCapacity, int maxClients, Duration idleTimeout, LongSupplier clock) {
+        if (partitionCapacity <= 0 || maxClients <= 0 || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Неверные параметры истории: " + partitionCapacity + ", "
+                    + maxClients + ", " + idleTimeout);
+        }
+        this.partitionCapacity = partitionCapacity;
+        this.maxClients = maxClients;
+        this.evictionTarget = maxClients - maxClients / 16;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    // Клиент, от имени которого текущий поток обращается к истории; null — общий раздел
+    public static void setCurrentClient(String clientId) {
+        CURRENT_CLIENT.set(clientId);
+    }
+
+    public static void clearCurrentClient() {
+        CURRENT_CLIENT.remove();
+    }
+
+    private static String currentClient() {
+        String clientId = CURRENT_CLIENT.get();
+        return clientId != null ? clientId : DEFAULT_CLIENT;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        String clientId = currentClient();
+        Partition partition = partitions.get(clientId);
+        if (partition == null) {
+            partition = partitions.computeIfAbsent(clientId, id -> new Partition(partitionCapacity, now));
+        }
+        partition.lastAccess = now;
+        synchronized (partition) {
+            partition.history.add(task);
+        }
+        if (partitions.size() > maxClients) {
+            evictOverflow();
+        } else {
+            sweepIfDue(now);
+        }
+    }
+
+    /**
+     * Удаленная задача пропадает из истории всех клиентов. Обходятся все разделы, поэтому удаление стоит
+     * O(число клиентов), не больше O(maxClients); в каждом разделе оно O(1) под его собственным замком.
+     */
+    @Override
+    public void remove(int id) {
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                partition.history.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(currentClient());
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        Partition partition = touch(currentClient());
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        synchronized (partition) {
+            return partition.history.getHistory(limit);
+        }
+    }
+
+    public List<Task> getHistory(String clientId) {
+        Partition partition = touch(clientId);
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        synchronized (partition) {
+            return partition.history.getHistory();
+        }
+    }
+
+    // Суммарное количество записей во всех разделах
+    @Override
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                size += partition.history.size();
+            }
+        }
+        return size;
+    }
+
+    // Разделы сами синхронизированы, внешний замок вокруг вызовов не нужен
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    public int getClientCount() {
+        return partitions.size();
+    }
+
+    private Partition touch(String clientId) {
+        long now = clock.getAsLong();
+        Partition partition = partitions.get(clientId);
+        if (partition != null) {
+            partition.lastAccess = now;
+        }
+        sweepIfDue(now);
+        return partition;
+    }
+
+    // Очистка простаивающих разделов не чаще раза в четверть таймаута; выполняет ее один поток
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= idleTimeoutNanos / 4 && lastSweep.compareAndSet(last, now) && sweepLock.tryLock()) {
+            try {
+                partitions.entrySet().removeIf(entry -> now - entry.getValue().lastAccess > idleTimeoutNanos);
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Сокращает переполненный каталог до evictionTarget разделов, удаляя давнее всех использованные.
+     * Проход с сортировкой стоит O(n log n), но следующий понадобится не раньше чем через
+     * maxClients - evictionTarget + 1 созданий. Поток, не получивший замок, уходит: владелец замка
+     * перепроверит размер после своего прохода и увидит его раздел.
+     */
+    private void evictOverflow() {
+        while (partitions.size() > maxClients) {
+            if (!sweepLock.tryLock()) {
+                return;
+            }
+            try {
+                long now = clock.getAsLong();
+                List<Map.Entry<String, Partition>> entries = new ArrayList<>();
+                for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+                    if (now - entry.getValue().lastAccess > idleTimeoutNanos) {
+                        partitions.remove(entry.getKey(), entry.getValue());
+                    } else {
+                        entries.add(Map.entry(entry.getKey(), entry.getValue()));
+                    }
+                }
+                int excess = entries.size() - evictionTarget;
+                if (excess > 0) {
+                    entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+                    for (int i = 0; i < excess; i++) {
+                        partitions.remove(entries.get(i).getKey(), entries.get(i).getValue());
+                    }
+                }
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package service;
+
+// Формат файла-снимка FileBackedTaskManager
+public enum SnapshotFormat {
+    // Текстовый CSV с заголовком: читается человеком, но медленно разбирается
+    CSV,
+    // Компактный двоичный формат BinarySnapshot: быстрый холодный старт
+    BINARY
+}
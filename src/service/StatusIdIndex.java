@@ -0,0 +1,144 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс id задач одного вида, упорядоченный по id и разбитый на корзины по статусу.
+ * <p>
+ * Страница с курсором — это tailSet корзины (или слияние корзин, если статус не задан),
+ * поэтому ее стоимость O(log n + размер страницы) вместо просмотра всего хранилища.
+ * Количество задач в статусе — счетчик корзины, O(1).
+ * <p>
+ * В потокобезопасном варианте корзины — ConcurrentSkipListSet: обходы слабо согласованы, а смена статуса
+ * (удаление из одной корзины и вставка в другую) видна читателям не атомарно. Изменения одного id
+ * вызывающий упорядочивает сам, как и изменения самой задачи.
+ */
+class StatusIdIndex {
+    private static final Status[] STATUSES = Status.values();
+
+    // Корзина на каждый статус; последняя — для задач без статуса
+    private final List<NavigableSet<Integer>> buckets;
+    // Размеры корзин: size() у ConcurrentSkipListSet — обход всего множества
+    private final AtomicIntegerArray counts;
+
+    StatusIdIndex() {
+        this(false);
+    }
+
+    StatusIdIndex(boolean concurrent) {
+        buckets = new ArrayList<>(STATUSES.length + 1);
+        for (int i = 0; i <= STATUSES.length; i++) {
+            buckets.add(concurrent ? new ConcurrentSkipListSet<>() : new TreeSet<>());
+        }
+        counts = new AtomicIntegerArray(STATUSES.length + 1);
+    }
+
+    void add(Task task) {
+        int index = bucketIndex(task.getStatus());
+        if (buckets.get(index).add(task.getId())) {
+            counts.incrementAndGet(index);
+        }
+    }
+
+    // Хранимый объект мог быть изменен на месте, поэтому прежний статус неизвестен: id ищется во всех корзинах
+    void remove(int id) {
+        for (int i = 0; i < buckets.size(); i++) {
+            if (buckets.get(i).remove(id)) {
+                counts.decrementAndGet(i);
+                return;
+            }
+        }
+    }
+
+    void update(Task task) {
+        remove(task.getId());
+        add(task);
+    }
+
+    void clear() {
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).clear();
+            counts.set(i, 0);
+        }
+    }
+
+    // Количество задач в статусе; null — задачи без статуса
+    int count(Status status) {
+        return counts.get(bucketIndex(status));
+    }
+
+    // id задач в статусе по возрастанию; null — задачи без статуса
+    void forEach(Status status, IntConsumer action) {
+        for (int id : buckets.get(bucketIndex(status))) {
+            action.accept(id);
+        }
+    }
+
+    /**
+     * Передает id больше afterId по возрастанию, пока visitor возвращает true.
+     * status == null — все задачи независимо от статуса.
+     */
+    void forEachAfter(Status status, int afterId, IntPredicate visitor) {
+        if (status != null) {
+            for (int id : buckets.get(bucketIndex(status)).tailSet(afterId, false)) {
+                if (!visitor.test(id)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        // Слияние упорядоченных корзин: на каждом шаге берется наименьшая голова
+        int size = buckets.size();
+        List<Iterator<Integer>> iterators = new ArrayList<>(size);
+        int[] heads = new int[size];
+        boolean[] alive = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Iterator<Integer> iterator = buckets.get(i).tailSet(afterId, false).iterator();
+            iterators.add(iterator);
+            alive[i] = iterator.hasNext();
+            if (alive[i]) {
+                heads[i] = iterator.next();
+            }
+        }
+        // При конкурентной смене статуса id может попасться в двух корзинах: повтор пропускается
+        int last = afterId;
+        while (true) {
+            int min = -1;
+            for (int i = 0; i < size; i++) {
+                if (alive[i] && (min < 0 || heads[i] < heads[min])) {
+                    min = i;
+                }
+            }
+            if (min < 0) {
+                return;
+            }
+            if (heads[min] > last) {
+                last = heads[min];
+                if (!visitor.test(last)) {
+                    return;
+                }
+            }
+            Iterator<Integer> iterator = iterators.get(min);
+            alive[min] = iterator.hasNext();
+            if (alive[min]) {
+                heads[min] = iterator.next();
+            }
+        }
+    }
+
+    private static int bucketIndex(Status status) {
+        return status == null ? STATUSES.length : status.ordinal();
+    }
+}
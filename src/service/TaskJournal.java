@@ -0,0 +1,324 @@
+package service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений (write-ahead log) для FileBackedTaskManager.
+ * <p>
+ * Каждая мутация дописывается в конец файла одной строкой, поэтому стоимость записи
+ * не зависит от размера доски. Сброс на диск (fsync) выполняется согласно {@link SyncPolicy}.
+ * Свертка журнала в снимок выполняется в фоновом потоке журнала.
+ * <p>
+ * Строка журнала — {@code <CRC32 записи, 8 hex-цифр>,<запись>\n}. Сбой посреди дозаписи оставляет в конце
+ * файла строку без перевода строки или с неверной контрольной суммой; при чтении такой хвост отбрасывается
+ * и обрезается, а не разбирается как запись. Неверная строка не в конце файла — повреждение журнала.
+ */
+public class TaskJournal implements AutoCloseable {
+
+    public enum SyncPolicy {
+        // fsync после каждой записи
+        ALWAYS,
+        // fsync не чаще одного раза за интервал, фоновым потоком
+        INTERVAL,
+        // сброс на диск остается на усмотрение ОС
+        NEVER
+    }
+
+    private static final int CRC_DIGITS = 8;
+
+    private final Path path;
+    private final SyncPolicy syncPolicy;
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+
+    private FileChannel channel;
+    private boolean dirty;
+    private int recordsSinceCompaction;
+
+    public TaskJournal(Path path, SyncPolicy syncPolicy, long syncIntervalMillis) {
+        this.path = path;
+        this.syncPolicy = syncPolicy;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.channel = open(path);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new ManagerSaveException("Ошибка открытия журнала", e);
+        }
+        if (syncPolicy == SyncPolicy.INTERVAL) {
+            executor.scheduleWithFixedDelay(this::syncIfDirty,
+                    syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+    }
+
+    /**
+     * Передает записи журнала по одной, не собирая их в память; возвращает число записей.
+     * Недописанный хвост (строка без перевода строки или с неверной контрольной суммой в конце файла)
+     * не передается и обрезается.
+     *
+     * @throws ManagerSaveException если неверная строка находится не в конце журнала
+     */
+    public static int forEachRecord(Path path, Consumer<String> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        int count = 0;
+        long position = 0;
+        // Конец последней целой записи: все после него — недописанный хвост
+        long validEnd = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int next;
+            while ((next = in.read()) != -1) {
+                position++;
+                if (next != '\n') {
+                    line.write(next);
+                    continue;
+                }
+                String record = unframe(line.toByteArray());
+                line.reset();
+                if (record == null) {
+                    if (in.read() != -1) {
+                        throw new ManagerSaveException("Журнал " + path + " поврежден: неверная запись в позиции "
+                                + validEnd);
+                    }
+                    break;
+                }
+                consumer.accept(record);
+                count++;
+                validEnd = position;
+            }
+        }
+        if (validEnd < Files.size(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+        }
+        return count;
+    }
+
+    // Запись без рамки или null, если строка оборвана или не сходится контрольная сумма
+    private static String unframe(byte[] line) {
+        if (line.length < CRC_DIGITS + 1 || line[CRC_DIGITS] != ',') {
+            return null;
+        }
+        long expected;
+        try {
+            expected = Long.parseLong(new String(line, 0, CRC_DIGITS, StandardCharsets.US_ASCII), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(line, CRC_DIGITS + 1, line.length - CRC_DIGITS - 1);
+        if (crc.getValue() != expected) {
+            return null;
+        }
+        return new String(line, CRC_DIGITS + 1, line.length - CRC_DIGITS - 1, StandardCharsets.UTF_8);
+    }
+
+    private static void frame(String record, ByteArrayOutputStream out) {
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        String checksum = Long.toHexString(crc.getValue());
+        for (int i = checksum.length(); i < CRC_DIGITS; i++) {
+            out.write('0');
+        }
+        out.writeBytes(checksum.getBytes(StandardCharsets.US_ASCII));
+        out.write(',');
+        out.writeBytes(payload);
+        out.write('\n');
+    }
+
+    public void append(String record) {
+        appendAll(List.of(record));
+    }
+
+    // Пакет записей одной записью в канал и, при политике ALWAYS, одним fsync
+    public void appendAll(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream text = new ByteArrayOutputStream(records.size() * 64);
+        for (String record : records) {
+            frame(record, text);
+        }
+        write(ByteBuffer.wrap(text.toByteArray()), records.size());
+    }
+
+    private void write(ByteBuffer buffer, int records) {
+        synchronized (lock) {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (syncPolicy == SyncPolicy.ALWAYS) {
+                    channel.force(false);
+                } else {
+                    dirty = true;
+                }
+                recordsSinceCompaction += records;
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка записи в журнал", e);
+            }
+        }
+    }
+
+    public int getRecordsSinceCompaction() {
+        synchronized (lock) {
+            return recordsSinceCompaction;
+        }
+    }
+
+    // Фиксирует текущую позицию журнала: все записи до нее войдут в снимок, снятый в этот момент
+    public long markCompaction() {
+        synchronized (lock) {
+            recordsSinceCompaction = 0;
+            try {
+                return channel.size();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка чтения позиции журнала", e);
+            }
+        }
+    }
+
+    // Удаляет из журнала записи до offset, уже вошедшие в снимок; более поздние записи сохраняются
+    public void truncateBefore(long offset) throws IOException {
+        synchronized (lock) {
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = source.size();
+                long position = offset;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+                target.force(false);
+            }
+            channel.close();
+            moveAtomically(tmp, path);
+            syncDirectory(path);
+            channel = open(path);
+            dirty = false;
+        }
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    public void sync() {
+        synchronized (lock) {
+            try {
+                channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка сброса журнала на диск", e);
+            }
+        }
+    }
+
+    private void syncIfDirty() {
+        synchronized (lock) {
+            if (!dirty || !channel.isOpen()) {
+                return;
+            }
+        }
+        try {
+            sync();
+        } catch (ManagerSaveException e) {
+            // Следующая запись или свертка сообщит об ошибке вызывающему коду
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            try {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка закрытия журнала", e);
+            }
+        }
+    }
+
+    // Записывает файл и дожидается его сброса на диск: только после этого его можно переименовывать поверх старого
+    static void writeDurably(Path target, byte[] content) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+    }
+
+    /**
+     * Сбрасывает на диск каталог файла, чтобы переименование пережило отключение питания.
+     * Там, где каталог нельзя открыть как файл (Windows), переименование и так фиксируется файловой системой.
+     */
+    static void syncDirectory(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException | UnsupportedOperationException e) {
+            // каталог нельзя открыть на этой платформе
+        }
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -3,10 +3,15 @@ package service;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.enums.Status;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public interface TaskManager {
     Task createTask(Task task);
@@ -35,6 +40,36 @@ public interface TaskManager {
 
     Subtask createSubtask(Subtask subtask);
 
+    /**
+     * Пакетное создание задач. Пакет только создает: каждой задаче назначается новый id, даже если id уже задан,
+     * чтобы задача пакета не подменяла существующую. Реализация по умолчанию создает задачи по одной через
+     * {@link #createTask} и не атомарна: при ошибке уже созданные задачи остаются. InMemoryTaskManager
+     * и наследники проверяют весь пакет до вставки и при ошибке не создают ни одной задачи.
+     * <p>
+     * Атомарность касается проверки, а не видимости для параллельных читателей. В ConcurrentTaskManager пакет
+     * сначала попадает в индекс времени, затем в хранилища по id: параллельный getPrioritizedTasks или
+     * findFreeSlots может уже вернуть задачу пакета, которую getTaskById еще не находит. После возврата
+     * из метода пакет виден целиком.
+     */
+    default List<Task> createTasksBulk(List<Task> batch) {
+        List<Task> created = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            task.setId(0);
+            created.add(createTask(task));
+        }
+        return created;
+    }
+
+    // Пакетное создание подзадач; id и атомарность — как у createTasksBulk
+    default List<Subtask> createSubtasksBulk(List<Subtask> batch) {
+        List<Subtask> created = new ArrayList<>(batch.size());
+        for (Subtask subtask : batch) {
+            subtask.setId(0);
+            created.add(createSubtask(subtask));
+        }
+        return created;
+    }
+
     Optional<Subtask> getSubtaskById(int id);
 
     ArrayList<Subtask> getAllSubtasks();
@@ -49,6 +84,12 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    // Последние limit просмотров, от давних к недавним
+    default List<Task> getHistory(int limit) {
+        List<Task> history = getHistory();
+        return new ArrayList<>(history.subList(Math.max(0, history.size() - Math.max(limit, 0)), history.size()));
+    }
+
     List<Task> getPrioritizedTasks();
 
     // Новые методы, которые бросают исключения (для HTTP обработчиков)
@@ -57,4 +98,85 @@ public interface TaskManager {
     Epic getEpicOrThrow(int id) throws NotFoundException;
 
     Subtask getSubtaskOrThrow(int id) throws NotFoundException;
+
+    // Обход без копирования в список — для потоковой выдачи больших коллекций
+    default void forEachTask(Consumer<? super Task> action) {
+        getAllTasks().forEach(action);
+    }
+
+    default void forEachEpic(Consumer<? super Epic> action) {
+        getAllEpics().forEach(action);
+    }
+
+    default void forEachSubtask(Consumer<? super Subtask> action) {
+        getAllSubtasks().forEach(action);
+    }
+
+    default void forEachPrioritized(Consumer<? super Task> action) {
+        getPrioritizedTasks().forEach(action);
+    }
+
+    // Выборки и счетчики по статусу; по умолчанию — фильтрацией полной копии
+    default List<Task> getTasksByStatus(Status status) {
+        return getAllTasks().stream().filter(task -> task.getStatus() == status).collect(Collectors.toList());
+    }
+
+    default List<Epic> getEpicsByStatus(Status status) {
+        return getAllEpics().stream().filter(epic -> epic.getStatus() == status).collect(Collectors.toList());
+    }
+
+    default List<Subtask> getSubtasksByStatus(Status status) {
+        return getAllSubtasks().stream().filter(subtask -> subtask.getStatus() == status)
+                .collect(Collectors.toList());
+    }
+
+    default int countTasksByStatus(Status status) {
+        return getTasksByStatus(status).size();
+    }
+
+    default int countEpicsByStatus(Status status) {
+        return getEpicsByStatus(status).size();
+    }
+
+    default int countSubtasksByStatus(Status status) {
+        return getSubtasksByStatus(status).size();
+    }
+
+    // Постраничные выборки с фильтрами (см. TaskQuery); по умолчанию — просмотром полной копии
+    default Page<Task> findTasks(TaskQuery query) {
+        return Page.scanById(getAllTasks(), query);
+    }
+
+    default Page<Epic> findEpics(TaskQuery query) {
+        return Page.scanById(getAllEpics(), query);
+    }
+
+    default Page<Subtask> findSubtasks(TaskQuery query) {
+        return Page.scanById(getAllSubtasks(), query);
+    }
+
+    default Page<Task> findPrioritized(TaskQuery query) {
+        return Page.scanByTime(getPrioritizedTasks(), query);
+    }
+
+    /**
+     * Первые limit свободных промежутков длиной не меньше duration, начиная с from; последний промежуток
+     * (после всех задач) открыт. По умолчанию — просмотр всего приоритетного списка,
+     * менеджеры с упорядоченным индексом начинают обход прямо с from.
+     */
+    default List<TimeSlot> findFreeSlots(LocalDateTime from, Duration duration, int limit) {
+        TimeUtils.checkSlotQuery(duration, limit);
+        return TimeUtils.freeSlots(null, getPrioritizedTasks(), from, duration, limit);
+    }
+
+    // Создание задачи с автоматическим размещением: время начала — самый ранний свободный момент не раньше notBefore
+    default Task placeTask(Task task, LocalDateTime notBefore) {
+        task.setStartTime(findFreeSlots(notBefore, task.getDuration(), 1).get(0).getStart());
+        return createTask(task);
+    }
+
+    default Subtask placeSubtask(Subtask subtask, LocalDateTime notBefore) {
+        subtask.setStartTime(findFreeSlots(notBefore, subtask.getDuration(), 1).get(0).getStart());
+        return createSubtask(subtask);
+    }
 }
@@ -0,0 +1,159 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+import model.enums.TaskType;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Запрос страницы задач: фильтры по статусу, типу и окну времени начала [from, to),
+ * курсор {@code after} и размер страницы.
+ * <p>
+ * Курсор — значение {@link Page#getNextCursor()} предыдущей страницы: для выборок по id это id
+ * последней задачи, для приоритетного списка — время ее начала и id через {@code _}.
+ * Любой фильтр может быть null.
+ */
+public class TaskQuery {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 10_000;
+
+    private static final char TIME_CURSOR_SEPARATOR = '_';
+
+    private final Status status;
+    private final TaskType type;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String after;
+    private final int limit;
+
+    public TaskQuery(Status status, TaskType type, LocalDateTime from, LocalDateTime to, String after, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_LIMIT + ": " + limit);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Пустое окно времени: " + from + " - " + to);
+        }
+        this.status = status;
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.after = after;
+        this.limit = limit;
+    }
+
+    public static TaskQuery firstPage(int limit) {
+        return new TaskQuery(null, null, null, null, null, limit);
+    }
+
+    // Тот же запрос для следующей страницы
+    public TaskQuery after(String cursor) {
+        return new TaskQuery(status, type, from, to, cursor, limit);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Проверка фильтров; курсор здесь не учитывается
+    public boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (type != null && task.getType() != type) {
+            return false;
+        }
+        if (from == null && to == null) {
+            return true;
+        }
+        LocalDateTime startTime = task.getStartTime();
+        return startTime != null
+                && (from == null || !startTime.isBefore(from))
+                && (to == null || startTime.isBefore(to));
+    }
+
+    // id из курсора выборки по id; 0 — с начала
+    public int afterId() {
+        if (after == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный курсор: " + after);
+        }
+    }
+
+    // Время начала из курсора приоритетного списка; null — с начала
+    public LocalDateTime afterStartTime() {
+        if (after == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(after.substring(0, timeCursorSeparator()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный курсор: " + after);
+        }
+    }
+
+    // id из курсора приоритетного списка
+    public int afterStartId() {
+        if (after == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(after.substring(timeCursorSeparator() + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный курсор: " + after);
+        }
+    }
+
+    private int timeCursorSeparator() {
+        int separator = after.lastIndexOf(TIME_CURSOR_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Неверный курсор: " + after);
+        }
+        return separator;
+    }
+
+    public static String idCursor(Task task) {
+        return String.valueOf(task.getId());
+    }
+
+    public static String timeCursor(Task task) {
+        return task.getStartTime().toString() + TIME_CURSOR_SEPARATOR + task.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskQuery{" +
+                "status=" + status +
+                ", type=" + type +
+                ", from=" + from +
+                ", to=" + to +
+                ", after='" + after + '\'' +
+                ", limit=" + limit +
+                '}';
+    }
+}
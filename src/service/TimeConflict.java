@@ -0,0 +1,44 @@
+package service;
+
+import model.Task;
+
+import java.util.Objects;
+
+/**
+ * Пара пересекающихся по времени задач; first начинается не позже second.
+ */
+public class TimeConflict {
+    private final Task first;
+    private final Task second;
+
+    public TimeConflict(Task first, Task second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public Task getFirst() {
+        return first;
+    }
+
+    public Task getSecond() {
+        return second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeConflict that = (TimeConflict) o;
+        return first.getId() == that.first.getId() && second.getId() == that.second.getId();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(first.getId(), second.getId());
+    }
+
+    @Override
+    public String toString() {
+        return first.getId() + " и " + second.getId();
+    }
+}
@@ -0,0 +1,110 @@
+package service;
+
+import metrics.Counter;
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Индекс временных интервалов [start, end) задач, упорядоченный по времени начала.
+ * <p>
+ * Менеджер гарантирует, что интервалы в индексе попарно не пересекаются, поэтому
+ * у интервалов с разным временем начала концы тоже упорядочены. Это позволяет
+ * отвечать на вопрос "пересекается ли интервал с чем-либо" проверкой соседей
+ * слева от конца нового интервала за O(log n) вместо полного перебора.
+ */
+public class TimeIntervalIndex {
+    private static final Counter OVERLAP_CHECKS = TimeUtils.overlapChecks();
+    private static final Counter OVERLAP_CONFLICTS = TimeUtils.overlapConflicts();
+
+    private static final class Key implements Comparable<Key> {
+        final LocalDateTime start;
+        // Минута начала: большинство сравнений решается на ней, без сравнения LocalDateTime
+        final long minute;
+        final int id;
+
+        Key(LocalDateTime start, long minute, int id) {
+            this.start = start;
+            this.minute = minute;
+            this.id = id;
+        }
+
+        Key(LocalDateTime start, int id) {
+            this(start, TimeUtils.toEpochMinute(start), id);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int cmp = Long.compare(minute, other.minute);
+            if (cmp == 0) {
+                cmp = start.compareTo(other.start);
+            }
+            return cmp != 0 ? cmp : Integer.compare(id, other.id);
+        }
+    }
+
+    private final TreeMap<Key, LocalDateTime> intervals = new TreeMap<>();
+    private final Map<Integer, Key> keysById = new HashMap<>();
+
+    public void add(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return;
+        }
+        remove(task.getId());
+        Key key = new Key(task.getStartTime(), task.getStartMinute(), task.getId());
+        intervals.put(key, task.getEndTime());
+        keysById.put(task.getId(), key);
+    }
+
+    public void remove(int id) {
+        Key key = keysById.remove(id);
+        if (key != null) {
+            intervals.remove(key);
+        }
+    }
+
+    public void clear() {
+        intervals.clear();
+        keysById.clear();
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+
+    // Интервал самой задачи (по id) при проверке не учитывается — как в TimeUtils.hasTimeOverlap
+    public boolean hasOverlap(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return false;
+        }
+        return hasOverlap(task.getStartTime(), task.getEndTime(), task.getId());
+    }
+
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end, int ignoredId) {
+        OVERLAP_CHECKS.increment();
+        // Кандидаты — только интервалы, начинающиеся строго раньше конца нового
+        NavigableMap<Key, LocalDateTime> candidates =
+                intervals.headMap(new Key(end, Integer.MIN_VALUE), false).descendingMap();
+
+        LocalDateTime boundary = null;
+        for (Map.Entry<Key, LocalDateTime> entry : candidates.entrySet()) {
+            Key key = entry.getKey();
+            if (boundary != null && key.start.isBefore(boundary)) {
+                // Все более ранние интервалы заканчиваются не позже boundary <= start
+                break;
+            }
+            if (key.id != ignoredId && start.isBefore(entry.getValue())) {
+                OVERLAP_CONFLICTS.increment();
+                return true;
+            }
+            if (key.start.isBefore(start)) {
+                boundary = key.start;
+            }
+        }
+        return false;
+    }
+}
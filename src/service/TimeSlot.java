@@ -0,0 +1,29 @@
+package service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Свободный промежуток расписания [start, end); end == null — промежуток после последней задачи, без конца.
+ */
+public class TimeSlot {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public TimeSlot(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + (end != null ? end : "...") + ")";
+    }
+}
@@ -1,33 +1,54 @@
 package service;
 
+import metrics.Counter;
+import metrics.MetricsRegistry;
 import model.Task;
+import model.enums.TaskType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TimeUtils {
+    private static final Counter OVERLAP_CHECKS = MetricsRegistry.getDefault().counter(
+            "task_overlap_checks_total", "Проверок пересечения задачи по времени с остальными");
+    private static final Counter OVERLAP_CONFLICTS = MetricsRegistry.getDefault().counter(
+            "task_overlap_conflicts_total", "Проверок пересечения, обнаруживших конфликт");
+
+    // Ниже этого размера разбиение на участки дороже самого прохода
+    private static final int PARALLEL_THRESHOLD = 8192;
 
     private TimeUtils() {
         // Приватный конструктор предотвращает создание экземпляров
     }
 
+    /**
+     * Пересекаются ли интервалы [start, end) двух задач. Сначала сравниваются кэшированные минуты эпохи:
+     * они охватывают точные интервалы, поэтому их непересечение окончательно, а для задач с границами
+     * на целых минутах точен и положительный ответ. LocalDateTime сравниваются только в остальных случаях.
+     */
     public static boolean isOverlap(Task task1, Task task2) {
-        if (task1 == null || task2 == null) {
+        if (task1 == null || task2 == null || task1.getStartTime() == null || task2.getStartTime() == null) {
             return false;
         }
-
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime start2 = task2.getStartTime();
-
-        if (start1 == null || start2 == null) {
+        if (task1.getStartMinute() >= task2.getEndMinute() || task2.getStartMinute() >= task1.getEndMinute()) {
             return false;
         }
-
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime end2 = task2.getEndTime();
+        if (task1.isMinuteAligned() && task2.isMinuteAligned()) {
+            return true;
+        }
 
         // Проверка пересечения интервалов по методу наложения отрезков
-        return start1.isBefore(end2) && start2.isBefore(end1);
+        return task1.getStartTime().isBefore(task2.getEndTime()) && task2.getStartTime().isBefore(task1.getEndTime());
     }
 
     public static boolean hasTimeOverlap(Task newTask, Collection<Task> existingTasks) {
@@ -35,11 +56,278 @@ public class TimeUtils {
             return false;
         }
 
-        return existingTasks.stream()
-                .anyMatch(existingTask ->
-                        existingTask != null &&
-                                !existingTask.equals(newTask) &&
-                                existingTask.getStartTime() != null &&
-                                isOverlap(newTask, existingTask));
+        OVERLAP_CHECKS.increment();
+        for (Task existingTask : existingTasks) {
+            if (existingTask != null && !existingTask.equals(newTask) && isOverlap(newTask, existingTask)) {
+                OVERLAP_CONFLICTS.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Пересекаются ли между собой какие-либо задачи набора: проход findConflicts до первой найденной пары
+    public static boolean hasMutualOverlap(Collection<? extends Task> tasks) {
+        Task[] sorted = timedTasks(tasks);
+        Arrays.sort(sorted, TimeUtils::compareByStart);
+        List<TimeConflict> conflicts = new ArrayList<>(1);
+        sweep(sorted, 0, sorted.length, new PriorityQueue<>(TimeUtils::compareByEnd), conflicts, 1);
+        return !conflicts.isEmpty();
+    }
+
+    /**
+     * Все пары пересекающихся задач набора за O(n log n + k), где k — число пар. Задачи сортируются по началу;
+     * при проходе хранятся активные задачи в куче по окончанию. Перед очередной задачей из кучи уходят
+     * закончившиеся не позже ее начала, а каждая оставшаяся начинается не позже и заканчивается позже
+     * ее начала — то есть пересекается с ней (задача нулевой длительности — только если начинается строго позже).
+     * Задачи без времени пропускаются.
+     */
+    public static List<TimeConflict> findConflicts(Collection<? extends Task> tasks) {
+        Task[] sorted = timedTasks(tasks);
+        Arrays.sort(sorted, TimeUtils::compareByStart);
+        List<TimeConflict> conflicts = new ArrayList<>();
+        sweep(sorted, 0, sorted.length, new PriorityQueue<>(TimeUtils::compareByEnd), conflicts, Integer.MAX_VALUE);
+        return conflicts;
+    }
+
+    /**
+     * Параллельный вариант {@link #findConflicts} для больших наборов: массив сортируется Arrays.parallelSort
+     * и делится на участки, которые проходятся независимо в общем ForkJoinPool. Куча участка заранее
+     * заполняется задачами предыдущих участков, еще не закончившимися к его первому началу: кандидаты ищутся
+     * двоичным поиском по префиксному максимуму окончаний. Очень длинная ранняя задача делает этот поиск
+     * линейным для каждого участка, но их число ограничено параллелизмом пула. Набор пар тот же,
+     * что у последовательного варианта; пары идут в порядке начала второй задачи.
+     */
+    public static List<TimeConflict> findConflictsParallel(Collection<? extends Task> tasks) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (tasks.size() < PARALLEL_THRESHOLD || parallelism < 2) {
+            return findConflicts(tasks);
+        }
+        return findConflicts(tasks, parallelism * 4);
+    }
+
+    // Проход участками; число участков задается явно, чтобы разбиение проверялось и на одном ядре
+    static List<TimeConflict> findConflicts(Collection<? extends Task> tasks, int chunks) {
+        Task[] sorted = timedTasks(tasks);
+        if (sorted.length == 0) {
+            return new ArrayList<>();
+        }
+        Arrays.parallelSort(sorted, TimeUtils::compareByStart);
+
+        // Индекс задачи с наибольшим окончанием среди sorted[0..i]
+        int[] latestEnd = new int[sorted.length];
+        for (int i = 1; i < sorted.length; i++) {
+            int previous = latestEnd[i - 1];
+            latestEnd[i] = compareByEnd(sorted[i], sorted[previous]) > 0 ? i : previous;
+        }
+
+        int chunkSize = (sorted.length + chunks - 1) / chunks;
+        List<List<TimeConflict>> parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    int from = Math.min(chunk * chunkSize, sorted.length);
+                    int to = Math.min(from + chunkSize, sorted.length);
+                    List<TimeConflict> part = new ArrayList<>();
+                    if (from < to) {
+                        sweep(sorted, from, to, activeBefore(sorted, latestEnd, from), part, Integer.MAX_VALUE);
+                    }
+                    return part;
+                })
+                .collect(Collectors.toList());
+
+        List<TimeConflict> conflicts = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        parts.forEach(conflicts::addAll);
+        return conflicts;
+    }
+
+    private static Task[] timedTasks(Collection<? extends Task> tasks) {
+        List<Task> timed = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task != null && task.getStartTime() != null) {
+                timed.add(task);
+            }
+        }
+        return timed.toArray(new Task[0]);
+    }
+
+    // Проход по sorted[from, to) с кучей активных задач, упорядоченной по окончанию; останавливается на limit пар
+    private static void sweep(Task[] sorted, int from, int to, PriorityQueue<Task> active,
+                              List<TimeConflict> conflicts, int limit) {
+        for (int i = from; i < to; i++) {
+            Task task = sorted[i];
+            while (!active.isEmpty() && !endsAfterStart(active.peek(), task)) {
+                active.poll();
+            }
+            for (Task running : active) {
+                if (isOverlap(running, task)) {
+                    conflicts.add(new TimeConflict(running, task));
+                    if (conflicts.size() >= limit) {
+                        return;
+                    }
+                }
+            }
+            active.add(task);
+        }
+    }
+
+    /**
+     * Задачи из sorted[0, from), заканчивающиеся позже начала sorted[from]. Префиксный максимум окончаний
+     * не убывает, поэтому все такие задачи лежат не левее первой позиции, где он превышает это начало.
+     */
+    private static PriorityQueue<Task> activeBefore(Task[] sorted, int[] latestEnd, int from) {
+        PriorityQueue<Task> active = new PriorityQueue<>(TimeUtils::compareByEnd);
+        Task first = sorted[from];
+        int low = 0;
+        int high = from;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (endsAfterStart(sorted[latestEnd[middle]], first)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        for (int i = low; i < from; i++) {
+            if (endsAfterStart(sorted[i], first)) {
+                active.add(sorted[i]);
+            }
+        }
+        return active;
+    }
+
+    // Заканчивается ли running позже начала task. Минута окончания округлена вверх, начала — вниз,
+    // поэтому по минутам ответ окончателен, только если они не совпадают и не соседние
+    private static boolean endsAfterStart(Task running, Task task) {
+        long gap = running.getEndMinute() - task.getStartMinute();
+        if (gap <= 0 || gap >= 2) {
+            return gap > 0;
+        }
+        return running.getEndTime().isAfter(task.getStartTime());
+    }
+
+    // Порядок по времени окончания; равные минуты уточняются точным временем
+    private static int compareByEnd(Task task1, Task task2) {
+        int cmp = Long.compare(task1.getEndMinute(), task2.getEndMinute());
+        return cmp != 0 ? cmp : task1.getEndTime().compareTo(task2.getEndTime());
+    }
+
+    /**
+     * Свободные промежутки длиной не меньше duration, начиная с from, по задачам в порядке начала.
+     * previous — задача, начавшаяся последней до from (null, если такой нет): задачи не пересекаются,
+     * поэтому только она может занимать момент from. Эпики пропускаются — их время складывается из подзадач.
+     * Обход прекращается на limit промежутках; последний промежуток после всех задач открыт.
+     */
+    static List<TimeSlot> freeSlots(Task previous, Iterable<? extends Task> ordered, LocalDateTime from,
+                                    Duration duration, int limit) {
+        LocalDateTime cursor = from;
+        if (previous != null && previous.getEndTime().isAfter(cursor)) {
+            cursor = previous.getEndTime();
+        }
+        List<TimeSlot> slots = new ArrayList<>(Math.min(limit, 16));
+        for (Task task : ordered) {
+            if (task.getType() == TaskType.EPIC || task.getStartTime() == null) {
+                continue;
+            }
+            if (!cursor.plus(duration).isAfter(task.getStartTime())) {
+                slots.add(new TimeSlot(cursor, task.getStartTime()));
+                if (slots.size() == limit) {
+                    return slots;
+                }
+            }
+            if (task.getEndTime().isAfter(cursor)) {
+                cursor = task.getEndTime();
+            }
+        }
+        slots.add(new TimeSlot(cursor, null));
+        return slots;
+    }
+
+    static void checkSlotQuery(Duration duration, int limit) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Длительность промежутка должна быть положительной: " + duration);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Число промежутков должно быть положительным: " + limit);
+        }
+    }
+
+    // Счетчики проверок пересечения — общие для полного перебора и TimeIntervalIndex
+    static Counter overlapChecks() {
+        return OVERLAP_CHECKS;
+    }
+
+    static Counter overlapConflicts() {
+        return OVERLAP_CONFLICTS;
+    }
+
+    // Минута эпохи (UTC), в которую попадает момент времени
+    public static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    // Порядок по времени начала, задачи без времени в конце; равные минуты уточняются точным временем
+    public static int compareByStart(Task task1, Task task2) {
+        LocalDateTime start1 = task1.getStartTime();
+        LocalDateTime start2 = task2.getStartTime();
+        if (start1 == null || start2 == null) {
+            return start1 == null ? (start2 == null ? 0 : 1) : -1;
+        }
+        int cmp = Long.compare(task1.getStartMinute(), task2.getStartMinute());
+        return cmp != 0 ? cmp : start1.compareTo(start2);
+    }
+
+    /**
+     * Быстрый разбор ISO_LOCAL_DATE_TIME из участка строки [from, to) без промежуточных объектов:
+     * поддерживается формат {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]}, который пишет LocalDateTime.toString().
+     * Прочие варианты разбираются стандартным LocalDateTime.parse.
+     */
+    public static LocalDateTime parseDateTime(CharSequence text, int from, int to) {
+        int length = to - from;
+        if (length >= 16 && text.charAt(from + 4) == '-' && text.charAt(from + 7) == '-'
+                && text.charAt(from + 10) == 'T' && text.charAt(from + 13) == ':') {
+            int year = digits(text, from, 4);
+            int month = digits(text, from + 5, 2);
+            int day = digits(text, from + 8, 2);
+            int hour = digits(text, from + 11, 2);
+            int minute = digits(text, from + 14, 2);
+            int second = 0;
+            int nano = 0;
+            boolean valid = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0;
+
+            if (valid && length > 16) {
+                valid = length >= 19 && text.charAt(from + 16) == ':';
+                second = valid ? digits(text, from + 17, 2) : -1;
+                valid = second >= 0;
+                if (valid && length > 19) {
+                    int fractionDigits = length - 20;
+                    valid = text.charAt(from + 19) == '.' && fractionDigits >= 1 && fractionDigits <= 9;
+                    nano = valid ? digits(text, from + 20, fractionDigits) : -1;
+                    valid = nano >= 0;
+                    for (int i = fractionDigits; valid && i < 9; i++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            if (valid) {
+                return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+            }
+        }
+        try {
+            return LocalDateTime.parse(text.subSequence(from, to));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный формат даты: " + text.subSequence(from, to), e);
+        }
+    }
+
+    // Читает count десятичных цифр; -1, если встретился другой символ
+    private static int digits(CharSequence text, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int в порядке добавления без упаковки — замена LinkedHashSet&lt;Integer&gt;: добавление,
+ * поиск и удаление O(1).
+ * <p>
+ * Элементы лежат плотно в массивах values/prev/next и связаны в двусвязный список порядка добавления;
+ * удаленный элемент замещается последним, поэтому дыр в массивах нет. Хеш-таблица с открытой адресацией
+ * хранит номер элемента + 1 (0 — пустая ячейка) и удаляет сдвигом, как {@link IntHashMap}.
+ */
+public final class IntLinkedSet {
+    private static final int NONE = -1;
+    private static final int MIN_CAPACITY = 4;
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values = EMPTY;
+    private int[] prev = EMPTY;
+    private int[] next = EMPTY;
+    private int[] table;
+    private int mask;
+    private int size;
+    private int head = NONE;
+    private int tail = NONE;
+
+    public IntLinkedSet() {
+        this(0);
+    }
+
+    public IntLinkedSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        table = new int[capacity];
+        mask = capacity - 1;
+        if (expectedSize > 0) {
+            values = new int[expectedSize];
+            prev = new int[expectedSize];
+            next = new int[expectedSize];
+        }
+    }
+
+    // Перемешивание битов, как в IntHashMap: последовательные id не ложатся одной цепочкой
+    private int slot(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // Ячейка таблицы с элементом value или пустая ячейка, куда его нужно положить
+    private int find(int value) {
+        int i = slot(value);
+        while (table[i] != 0 && values[table[i] - 1] != value) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    public boolean contains(int value) {
+        return table[find(value)] != 0;
+    }
+
+    // false, если элемент уже есть: его место в порядке добавления не меняется
+    public boolean add(int value) {
+        int cell = find(value);
+        if (table[cell] != 0) {
+            return false;
+        }
+        if (size == values.length) {
+            int capacity = Math.max(MIN_CAPACITY, size + (size >> 1));
+            values = Arrays.copyOf(values, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        int entry = size++;
+        values[entry] = value;
+        prev[entry] = tail;
+        next[entry] = NONE;
+        if (tail == NONE) {
+            head = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tail = entry;
+        table[cell] = entry + 1;
+        if (size > table.length * 3 / 4) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int cell = find(value);
+        if (table[cell] == 0) {
+            return false;
+        }
+        int entry = table[cell] - 1;
+        shiftBack(cell);
+        unlink(entry);
+        int last = --size;
+        if (entry != last) {
+            move(last, entry);
+        }
+        return true;
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] == NONE) {
+            head = next[entry];
+        } else {
+            next[prev[entry]] = next[entry];
+        }
+        if (next[entry] == NONE) {
+            tail = prev[entry];
+        } else {
+            prev[next[entry]] = prev[entry];
+        }
+    }
+
+    // Переносит последний элемент на освободившееся место вместе со ссылками соседей и ячейкой таблицы
+    private void move(int from, int to) {
+        values[to] = values[from];
+        prev[to] = prev[from];
+        next[to] = next[from];
+        if (prev[to] == NONE) {
+            head = to;
+        } else {
+            next[prev[to]] = to;
+        }
+        if (next[to] == NONE) {
+            tail = to;
+        } else {
+            prev[next[to]] = to;
+        }
+        table[find(values[to])] = to + 1;
+    }
+
+    // Сдвигает назад элементы цепочки за удаленной ячейкой, чтобы поиск не обрывался на дыре
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (table[i] == 0) {
+                break;
+            }
+            int home = slot(values[table[i] - 1]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        for (int entry = 0; entry < size; entry++) {
+            table[find(values[entry])] = entry + 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        head = NONE;
+        tail = NONE;
+    }
+
+    // Обход в порядке добавления; изменять множество во время обхода нельзя
+    public void forEach(IntConsumer action) {
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            action.accept(values[entry]);
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            result[count++] = values[entry];
+        }
+        return result;
+    }
+
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -1,10 +1,16 @@
 package http;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.enums.Status;
 import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+import service.Managers;
+import service.TaskManager;
 
 import java.io.IOException;
 import java.net.URI;
@@ -170,4 +176,93 @@ class HistoryAndPrioritizedHttpTest extends HttpTestBase {
         assertEquals(1, history.length, "История должна содержать 1 задачу");
         assertEquals(task.getId(), history[0].getId(), "История должна содержать просмотренную задачу");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHistoryIsPartitionedByClientHeader() throws IOException, InterruptedException {
+        TaskManager partitioned = new InMemoryTaskManager(Managers.getPartitionedHistory(10, 100,
+                Duration.ofMinutes(5)));
+        HttpTaskServer server = new HttpTaskServer(partitioned,
+                new ServerConfig(0, 0, ServerConfig.ExecutorMode.DISPATCHER, 0));
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getPort();
+            Task first = partitioned.createTask(createTestTask("Первая", "Описание"));
+            Task second = partitioned.createTask(createTestTask("Вторая", "Описание"));
+
+            view(url + "/tasks/" + first.getId(), "alice");
+            view(url + "/tasks/" + second.getId(), "bob");
+            view(url + "/tasks/" + second.getId(), "alice");
+
+            assertEquals(List.of(first.getId(), second.getId()), historyIds(url, "alice"));
+            assertEquals(List.of(second.getId()), historyIds(url, "bob"));
+
+            partitioned.deleteTaskById(second.getId());
+            assertEquals(List.of(first.getId()), historyIds(url, "alice"));
+            assertTrue(historyIds(url, "bob").isEmpty());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void view(String url, String clientId) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header(ClientIdFilter.CLIENT_ID_HEADER, clientId)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+    }
+
+    private List<Integer> historyIds(String url, String clientId) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(url + "/history"))
+                .header(ClientIdFilter.CLIENT_ID_HEADER, clientId)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return Arrays.stream(gson.fromJson(response.body(), Task[].class))
+                .map(Task::getId)
+                .collect(Collectors.toList());
+    }
+
+    //проверка GET /prioritized/free и создания задачи с автоматическим размещением
+    @Test
+    void testFreeSlotsAndAutoPlacement() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2024, 4, 1, 9, 0);
+        manager.createTask(createTestTaskWithTime("Первая", "Описание", Duration.ofMinutes(60), base));
+        manager.createTask(createTestTaskWithTime("Вторая", "Описание", Duration.ofMinutes(60), base.plusMinutes(90)));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/prioritized/free?duration=30&limit=2&from=" + base))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        JsonArray slots = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(2, slots.size());
+        JsonObject first = slots.get(0).getAsJsonObject();
+        assertEquals(base.plusMinutes(60), LocalDateTime.parse(first.get("start").getAsString()));
+        assertEquals(base.plusMinutes(90), LocalDateTime.parse(first.get("end").getAsString()));
+        assertFalse(slots.get(1).getAsJsonObject().has("end"));
+
+        response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/prioritized/free?limit=2")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+
+        Task task = createTestTaskWithTime("Размещаемая", "Описание", Duration.ofMinutes(45), null);
+        response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?place=auto&from=" + base))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode());
+        Task placed = gson.fromJson(response.body(), Task.class);
+        assertEquals(base.plusMinutes(150), placed.getStartTime());
+        assertEquals(base.plusMinutes(150), manager.getTaskOrThrow(placed.getId()).getStartTime());
+
+        // Задачу без длительности разместить нельзя — 400, а не ошибка сервера
+        Task instant = createTestTaskWithTime("Мгновенная", "Описание", Duration.ZERO, null);
+        response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?place=auto&from=" + base))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(instant))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+}
@@ -0,0 +1,56 @@
+package http;
+
+import metrics.MetricsRegistry;
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+import service.InstrumentedTaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsHttpTest {
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    void tearDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    //проверка, что /metrics отдает счетчики запросов по обработчикам и замеры операций менеджера
+    @Test
+    void testMetricsEndpointReportsRequestsAndOperations() throws IOException, InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        InstrumentedTaskManager manager = new InstrumentedTaskManager(new InMemoryTaskManager(), registry);
+        taskServer = new HttpTaskServer(manager, new ServerConfig(0, 0, ServerConfig.ExecutorMode.DISPATCHER, 0),
+                registry);
+        taskServer.start();
+        HttpClient client = HttpClient.newHttpClient();
+        String base = "http://localhost:" + taskServer.getPort();
+
+        String body = HttpTaskServer.getGson().toJson(new Task("Задача", "Описание", Status.NEW));
+        client.send(HttpRequest.newBuilder(URI.create(base + "/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+        client.send(HttpRequest.newBuilder(URI.create(base + "/tasks/999")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(base + "/metrics")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        String text = response.body();
+        assertTrue(text.contains("http_requests_total{handler=\"/tasks\",code=\"201\"} 1\n"), text);
+        assertTrue(text.contains("http_requests_total{handler=\"/tasks\",code=\"404\"} 1\n"), text);
+        assertTrue(text.contains("http_request_duration_seconds_count{handler=\"/tasks\"} 2\n"), text);
+        assertTrue(text.contains("task_manager_operation_duration_seconds_count{operation=\"createTask\"} 1\n"), text);
+    }
+}
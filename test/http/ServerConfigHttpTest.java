@@ -0,0 +1,76 @@
+package http;
+
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.ConcurrentTaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerConfigHttpTest {
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    void tearDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    //проверка чтения настроек сервера из свойств и значений по умолчанию
+    @Test
+    void testConfigFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("http.port", "9090");
+        properties.setProperty("http.executor", "FIXED");
+        properties.setProperty("http.threads", "3");
+
+        ServerConfig config = ServerConfig.fromProperties(properties);
+
+        assertEquals(9090, config.getPort());
+        assertEquals(ServerConfig.DEFAULT_BACKLOG, config.getBacklog());
+        assertEquals(ServerConfig.ExecutorMode.FIXED, config.getExecutorMode());
+        assertEquals(3, config.getThreads());
+        assertEquals(ServerConfig.DEFAULT_PORT, ServerConfig.defaults().getPort());
+    }
+
+    //проверка параллельной обработки запросов в каждом режиме исполнителя на свободном порту
+    @Test
+    void testEveryExecutorModeServesConcurrentRequests() throws IOException {
+        for (ServerConfig.ExecutorMode mode : ServerConfig.ExecutorMode.values()) {
+            ConcurrentTaskManager manager = new ConcurrentTaskManager();
+            taskServer = new HttpTaskServer(manager, new ServerConfig(0, 64, mode, 4));
+            taskServer.start();
+            assertNotEquals(0, taskServer.getPort(), "Порт должен быть выбран ОС");
+
+            HttpClient client = HttpClient.newHttpClient();
+            String body = HttpTaskServer.getGson().toJson(new Task("Задача", "Описание", Status.NEW));
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + taskServer.getPort() + "/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(201, response.join().statusCode(), "Режим " + mode);
+            }
+            assertEquals(32, manager.getAllTasks().size(), "Режим " + mode);
+
+            taskServer.stop();
+            taskServer = null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.Test;
+import util.IntLinkedSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskAdapterTest {
+    private final Gson compact = HttpTaskServer.getGson();
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(IntLinkedSet.class, new IntLinkedSetAdapter())
+            .create();
+
+    //проверка, что ручные адаптеры выдают тот же JSON, что и рефлексия, и без отступов
+    @Test
+    void testCompactJsonMatchesReflectiveFormat() {
+        LocalDateTime start = LocalDateTime.of(2024, 2, 1, 9, 30);
+        Task task = new Task("Задача", "Описание \"в кавычках\"", 1, Status.IN_PROGRESS, Duration.ofMinutes(45), start);
+        Epic epic = new Epic("Эпик", "Описание", 2, Status.NEW, Duration.ofMinutes(30), start, start.plusHours(1));
+        epic.addSubtaskId(3);
+        Subtask subtask = new Subtask("Подзадача", null, 3, Status.DONE, 2, Duration.ofMinutes(30), null);
+        List<Task> board = List.of(task, epic, subtask);
+
+        String json = compact.toJson(board);
+
+        assertFalse(json.contains("\n"), "Компактный JSON не должен содержать переводов строк");
+        assertEquals(JsonParser.parseString(reflective.toJson(board)), JsonParser.parseString(json));
+    }
+
+    //проверка чтения задач всех типов ручными адаптерами
+    @Test
+    void testReadRestoresAllTaskTypes() {
+        Subtask subtask = compact.fromJson("{\"epicId\":2,\"title\":\"Подзадача\",\"id\":3,\"status\":\"DONE\","
+                + "\"duration\":15,\"startTime\":\"2024-02-01T09:30:00\",\"unknown\":[1,{\"a\":null}]}", Subtask.class);
+        assertEquals(2, subtask.getEpicId());
+        assertEquals(Status.DONE, subtask.getStatus());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 9, 30), subtask.getStartTime());
+        assertNull(subtask.getDescription());
+
+        Epic epic = compact.fromJson("{\"subtaskIds\":[3,4],\"title\":\"Эпик\",\"description\":\"Описание\"}", Epic.class);
+        assertEquals(List.of(3, 4), epic.getSubtaskIds());
+        assertEquals(0, epic.getId());
+
+        Task task = compact.fromJson("{\"title\":\"Задача\",\"startTime\":null}", Task.class);
+        assertEquals(Duration.ZERO, task.getDuration());
+        assertNull(task.getStartTime());
+    }
+
+    //проверка, что неизвестный статус читается как null, как у рефлексии, а не обрывает разбор
+    @Test
+    void testUnknownStatusReadsAsNull() {
+        String json = "{\"title\":\"Задача\",\"status\":\"in_progress\"}";
+
+        Task task = compact.fromJson(json, Task.class);
+
+        assertNull(task.getStatus());
+        assertNull(reflective.fromJson(json, Task.class).getStatus());
+        assertEquals("Задача", task.getTitle());
+    }
+}
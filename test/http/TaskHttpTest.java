@@ -267,4 +267,99 @@ class TaskHttpTest extends HttpTestBase {
             assertEquals("TASK", jsonObject.get("type").getAsString());
         }
     }
+
+    //проверка потоковой выдачи списка задач: chunked-ответ без Content-Length с корректным JSON
+    @Test
+    void testGetAllTasksIsStreamed() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(createTestTask("Задача " + i, "Описание"));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""));
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(3, tasks.length);
+    }
+
+    @Test
+    void testGetTasksPageWithCursor() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(createTestTask("Задача " + i, "Описание"));
+        }
+
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?limit=3"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, first.statusCode());
+        assertEquals(3, gson.fromJson(first.body(), Task[].class).length);
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+
+        HttpResponse<String> second = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?limit=3&after=" + cursor))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, second.statusCode());
+        assertEquals(2, gson.fromJson(second.body(), Task[].class).length);
+        assertTrue(second.headers().firstValue("X-Next-Cursor").isEmpty());
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?status=UNKNOWN"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    void testGetTaskCountsByStatus() throws IOException, InterruptedException {
+        manager.createTask(createTestTask("Первая", "Описание"));
+        manager.createTask(new Task("Вторая", "Описание", Status.DONE));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks/counts"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonObject counts = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(manager.countTasksByStatus(Status.NEW), counts.get("NEW").getAsInt());
+        assertEquals(0, counts.get("IN_PROGRESS").getAsInt());
+        assertEquals(1, counts.get("DONE").getAsInt());
+    }
+
+    //проверка пакетного создания через POST /tasks/batch и отказа для пакета с пересечением
+    @Test
+    void testCreateTasksBatch() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        List<Task> batch = List.of(
+                createTestTaskWithTime("Задача 1", "Описание", Duration.ofMinutes(30), base),
+                createTestTaskWithTime("Задача 2", "Описание", Duration.ofMinutes(30), base.plusHours(1)),
+                createTestTask("Без времени", "Описание"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode());
+        int[] ids = gson.fromJson(response.body(), int[].class);
+        assertEquals(3, ids.length);
+        assertEquals("Задача 2", manager.getTaskOrThrow(ids[1]).getTitle());
+
+        List<Task> conflicting = List.of(
+                createTestTaskWithTime("Задача 3", "Описание", Duration.ofMinutes(30), base.plusHours(2)),
+                createTestTaskWithTime("Задача 4", "Описание", Duration.ofMinutes(30), base.plusMinutes(10)));
+        response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(conflicting)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode());
+        assertEquals(3, manager.getAllTasks().size());
+    }
 }
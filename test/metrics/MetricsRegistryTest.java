@@ -0,0 +1,39 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    //проверка выдачи счетчиков, гистограмм и значений в текстовом формате Prometheus
+    @Test
+    void testScrapeInPrometheusFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter requests = registry.counter("requests_total", "Запросы", "handler", "/tasks", "code", "200");
+        requests.increment();
+        requests.add(2);
+        assertSame(requests, registry.counter("requests_total", "Запросы", "handler", "/tasks", "code", "200"));
+
+        Timer timer = registry.timer("duration_seconds", "Длительность", "operation", "save");
+        timer.record(3_000);
+        timer.record(2_000_000);
+        timer.record(20_000_000_000L);
+        registry.gauge("history_size", "История", () -> 7);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE requests_total counter\n"));
+        assertTrue(text.contains("requests_total{handler=\"/tasks\",code=\"200\"} 3\n"));
+        assertTrue(text.contains("# TYPE duration_seconds histogram\n"));
+        assertTrue(text.contains("duration_seconds_bucket{operation=\"save\",le=\"0.000001\"} 0\n"));
+        assertTrue(text.contains("duration_seconds_bucket{operation=\"save\",le=\"0.000005\"} 1\n"));
+        assertTrue(text.contains("duration_seconds_bucket{operation=\"save\",le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("duration_seconds_bucket{operation=\"save\",le=\"10\"} 2\n"));
+        assertTrue(text.contains("duration_seconds_bucket{operation=\"save\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("duration_seconds_count{operation=\"save\"} 3\n"));
+        assertTrue(text.contains("history_size 7.0\n"));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("requests_total", "Запросы"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_total", "Метки", "handler"));
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHistoryManagerTest {
+    private AsyncHistoryManager history;
+
+    @AfterEach
+    void tearDown() {
+        if (history != null) {
+            history.close();
+        }
+    }
+
+    //проверка, что чтение истории видит все завершенные просмотры в порядке публикации
+    @Test
+    void testHistoryReflectsPublishedViews() {
+        history = new AsyncHistoryManager(new InMemoryHistoryManager(), 8);
+        for (int id = 1; id <= 20; id++) {
+            history.add(task(id));
+        }
+        history.add(task(3));
+
+        List<Integer> ids = history.getHistory().stream().map(Task::getId).collect(Collectors.toList());
+        assertEquals(20, ids.size(), "Переполнение маленького буфера не должно терять просмотры");
+        assertEquals(3, ids.get(ids.size() - 1));
+        assertEquals(List.of(20, 3), history.getHistory(2).stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    //проверка, что удаление применяется после всех более ранних просмотров
+    @Test
+    void testRemoveIsOrderedAfterEarlierViews() {
+        history = new AsyncHistoryManager(new InMemoryHistoryManager());
+        history.add(task(1));
+        history.add(task(2));
+        history.remove(1);
+
+        assertEquals(List.of(2), history.getHistory().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    //проверка записи из нескольких потоков через ограниченный буфер
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        history = new AsyncHistoryManager(new InMemoryHistoryManager(), 64);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            int base = t * 10_000;
+            producers[t] = new Thread(() -> {
+                for (int i = 1; i <= 5_000; i++) {
+                    history.add(task(base + i));
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        Set<Integer> ids = history.getHistory().stream().map(Task::getId).collect(Collectors.toSet());
+        assertEquals(20_000, ids.size());
+    }
+
+    private static Task task(int id) {
+        return new Task("Задача " + id, "Описание", id, Status.NEW);
+    }
+}
@@ -0,0 +1,99 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import model.enums.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskStoreTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    //проверка, что представление задачи собирается из колонок без потери полей
+    @Test
+    void testViewRestoresTasks() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        LocalDateTime precise = BASE.plusSeconds(30).plusNanos(5);
+        store.put(new Task("Задача", "Описание", 1, Status.IN_PROGRESS, Duration.ofMinutes(15), precise));
+        store.put(new Epic("Эпик", "Описание эпика", 2, Status.NEW));
+        store.put(new Subtask("Подзадача", "Описание", 3, Status.DONE, 2, Duration.ofMinutes(30), BASE.plusHours(1)));
+
+        Task task = store.view(1);
+        assertEquals(TaskType.TASK, task.getType());
+        assertEquals("Задача", task.getTitle());
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+        assertEquals(precise, task.getStartTime());
+        assertEquals(Duration.ofMinutes(15), task.getDuration());
+
+        Subtask subtask = (Subtask) store.view(3);
+        assertEquals(2, subtask.getEpicId());
+        assertEquals(BASE.plusHours(1), subtask.getStartTime());
+
+        Epic epic = (Epic) store.view(2);
+        assertEquals(List.of(3), epic.getSubtaskIds());
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(BASE.plusHours(1), epic.getStartTime());
+        assertEquals(BASE.plusMinutes(90), epic.getEndTime());
+        assertEquals(3, store.size());
+        assertNull(store.view(4));
+    }
+
+    //проверка пересечений по минутам и их обновления при перезаписи и удалении задач
+    @Test
+    void testOverlapFollowsPutAndRemove() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.put(new Task("Первая", "", 1, Status.NEW, Duration.ofMinutes(30), BASE));
+        store.put(new Task("Вторая", "", 2, Status.NEW, Duration.ofMinutes(30), BASE.plusHours(1)));
+
+        assertTrue(store.hasOverlap(new Task("", "", 3, Status.NEW, Duration.ofMinutes(10), BASE.plusMinutes(20))));
+        assertFalse(store.hasOverlap(new Task("", "", 3, Status.NEW, Duration.ofMinutes(30), BASE.plusMinutes(30))));
+        assertFalse(store.hasOverlap(new Task("", "", 1, Status.NEW, Duration.ofMinutes(30), BASE)));
+        // Начало с секундами округляется вниз, поэтому касание конца первой задачи — уже пересечение
+        assertTrue(store.hasOverlap(new Task("", "", 3, Status.NEW, Duration.ofMinutes(5),
+                BASE.plusMinutes(29).plusSeconds(59))));
+
+        store.put(new Task("Первая", "", 1, Status.NEW, Duration.ofMinutes(30), BASE.plusHours(3)));
+        assertFalse(store.hasOverlap(new Task("", "", 3, Status.NEW, Duration.ofMinutes(10), BASE.plusMinutes(20))));
+
+        List<Integer> order = new ArrayList<>();
+        store.forEachByStart(order::add);
+        assertEquals(List.of(2, 1), order);
+
+        store.remove(2);
+        assertFalse(store.hasOverlap(new Task("", "", 3, Status.NEW, Duration.ofMinutes(10), BASE.plusHours(1))));
+        assertFalse(store.contains(2));
+        assertEquals(1, store.size());
+    }
+
+    //проверка агрегатов эпика по колонкам подзадач
+    @Test
+    void testEpicAggregates() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.put(new Epic("Эпик", "", 1, Status.NEW));
+        assertEquals(Status.NEW, store.epicStatus(1));
+        assertEquals(ColumnarTaskStore.NO_TIME, store.epicStartMinute(1));
+
+        store.put(new Subtask("A", "", 2, Status.NEW, 1, Duration.ofMinutes(20), BASE.plusHours(2)));
+        store.put(new Subtask("B", "", 3, Status.DONE, 1, Duration.ofMinutes(10), BASE));
+        store.put(new Subtask("C", "", 4, Status.NEW, 1));
+
+        assertEquals(Status.IN_PROGRESS, store.epicStatus(1));
+        assertEquals(ColumnarTaskStore.floorMinute(BASE), store.epicStartMinute(1));
+        assertEquals(ColumnarTaskStore.floorMinute(BASE.plusMinutes(140)), store.epicEndMinute(1));
+        assertEquals(30, store.epicDurationMinutes(1));
+
+        store.put(new Subtask("B", "", 3, Status.NEW, 1, Duration.ofMinutes(10), BASE));
+        assertEquals(Status.NEW, store.epicStatus(1));
+        store.remove(2);
+        assertEquals(10, store.epicDurationMinutes(1));
+        assertEquals(ColumnarTaskStore.floorMinute(BASE.plusMinutes(10)), store.epicEndMinute(1));
+    }
+}
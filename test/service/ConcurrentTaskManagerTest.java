@@ -0,0 +1,330 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager(Managers.getDefaultHistory());
+    }
+
+    //проверка, что размещение сдается после ограниченного числа попыток, если промежуток все время занимают
+    @Test
+    void testPlaceTaskGivesUpAfterBoundedRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        ConcurrentTaskManager contended = new ConcurrentTaskManager(Managers.getDefaultHistory()) {
+            @Override
+            public Task createTask(Task task) {
+                attempts.incrementAndGet();
+                throw new ManagerValidateException("Промежуток занят");
+            }
+        };
+        Task task = new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30), null);
+
+        ManagerValidateException e = assertThrows(ManagerValidateException.class,
+                () -> contended.placeTask(task, LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        assertEquals(ConcurrentTaskManager.MAX_PLACEMENT_ATTEMPTS, attempts.get());
+        assertInstanceOf(ManagerValidateException.class, e.getCause());
+    }
+
+    //проверка инвариантов после одновременных созданий, обновлений и удалений из многих потоков
+    @Test
+    void testStressInvariantsUnderConcurrentMutations() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Epic> sharedEpics = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            sharedEpics.add(taskManager.createEpic(new Epic("Эпик " + i, "Общий эпик")));
+        }
+        Set<Integer> createdIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicateIds = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Integer> ownTasks = new ArrayList<>();
+                List<Integer> ownSubtasks = new ArrayList<>();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    // Интервалы потоков чередуются, но иногда намеренно попадают в чужой слот
+                    long slot = random.nextInt(10) == 0 ? random.nextInt(THREADS * OPERATIONS)
+                            : (long) i * THREADS + thread;
+                    LocalDateTime time = base.plusMinutes(slot * 10);
+                    try {
+                        switch (random.nextInt(6)) {
+                            case 0:
+                            case 1: {
+                                Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW,
+                                        Duration.ofMinutes(10), time));
+                                if (!createdIds.add(task.getId())) {
+                                    duplicateIds.incrementAndGet();
+                                }
+                                ownTasks.add(task.getId());
+                                break;
+                            }
+                            case 2: {
+                                Epic epic = sharedEpics.get(random.nextInt(sharedEpics.size()));
+                                Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", "Описание",
+                                        Status.values()[random.nextInt(3)], epic.getId(),
+                                        Duration.ofMinutes(10), time));
+                                if (!createdIds.add(subtask.getId())) {
+                                    duplicateIds.incrementAndGet();
+                                }
+                                ownSubtasks.add(subtask.getId());
+                                break;
+                            }
+                            case 3:
+                                if (!ownSubtasks.isEmpty()) {
+                                    int id = ownSubtasks.get(random.nextInt(ownSubtasks.size()));
+                                    Epic target = sharedEpics.get(random.nextInt(sharedEpics.size()));
+                                    Subtask moved = new Subtask("Перенесенная", "Описание",
+                                            Status.values()[random.nextInt(3)], target.getId(),
+                                            Duration.ofMinutes(5), time);
+                                    moved.setId(id);
+                                    taskManager.updateSubtask(moved);
+                                }
+                                break;
+                            case 4:
+                                if (!ownTasks.isEmpty()) {
+                                    int id = ownTasks.remove(random.nextInt(ownTasks.size()));
+                                    taskManager.deleteTaskById(id);
+                                }
+                                break;
+                            default:
+                                if (!ownSubtasks.isEmpty()) {
+                                    int id = ownSubtasks.remove(random.nextInt(ownSubtasks.size()));
+                                    taskManager.deleteSubtaskById(id);
+                                }
+                                break;
+                        }
+                    } catch (ManagerValidateException e) {
+                        // Пересечение с чужим интервалом — ожидаемый отказ
+                    }
+                    taskManager.getPrioritizedTasks();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, duplicateIds.get(), "Id не должны повторяться");
+
+        // Каждая подзадача записана в своем эпике, и эпик не ссылается на чужие подзадачи
+        Map<Integer, Set<Integer>> expected = taskManager.getAllSubtasks().stream()
+                .collect(Collectors.groupingBy(Subtask::getEpicId,
+                        Collectors.mapping(Subtask::getId, Collectors.toSet())));
+        for (Epic epic : taskManager.getAllEpics()) {
+            Set<Integer> subtaskIds = expected.getOrDefault(epic.getId(), Set.of());
+            assertEquals(subtaskIds, new HashSet<>(epic.getSubtaskIds()), "Подзадачи эпика " + epic.getId());
+
+            List<Subtask> epicSubtasks = taskManager.getSubtasksByEpicId(epic.getId());
+            Status status;
+            if (epicSubtasks.isEmpty() || epicSubtasks.stream().allMatch(s -> s.getStatus() == Status.NEW)) {
+                status = Status.NEW;
+            } else if (epicSubtasks.stream().allMatch(s -> s.getStatus() == Status.DONE)) {
+                status = Status.DONE;
+            } else {
+                status = Status.IN_PROGRESS;
+            }
+            assertEquals(status, epic.getStatus(), "Статус эпика " + epic.getId());
+        }
+
+        // Приоритетный список упорядочен, без пересечений и совпадает с задачами, у которых есть время
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()),
+                    "Интервалы не должны пересекаться");
+        }
+        assertEquals(taskManager.getAllTasks().size() + taskManager.getAllSubtasks().size(), prioritized.size());
+    }
+
+    //проверка, что из одновременных попыток занять один интервал проходит ровно одна
+    @Test
+    void testConcurrentCreatesInSameSlotAdmitExactlyOne() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 1, 12, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS * 4; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    taskManager.createTask(new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30), time));
+                    created.incrementAndGet();
+                } catch (ManagerValidateException e) {
+                    // Ожидаемо для всех, кроме одного
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+    }
+
+    //проверка, что пакетный импорт вместе с одиночными созданиями и удалениями не блокирует друг друга
+    @Test
+    void testBulkImportAlongsideSingleWrites() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 7, 1, 0, 0);
+        AtomicInteger slot = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean bulk = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    if (bulk) {
+                        List<Task> batch = new ArrayList<>();
+                        for (int j = 0; j < 10; j++) {
+                            batch.add(new Task("Пакетная", "Описание", Status.NEW, Duration.ofMinutes(10),
+                                    base.plusMinutes(10L * slot.getAndIncrement())));
+                        }
+                        taskManager.createTasksBulk(batch);
+                    } else {
+                        Task task = taskManager.createTask(new Task("Одиночная", "Описание", Status.NEW,
+                                Duration.ofMinutes(10), base.plusMinutes(10L * slot.getAndIncrement())));
+                        if (i % 3 == 0) {
+                            taskManager.deleteTaskById(task.getId());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int bulkWriters = (THREADS + 1) / 2;
+        int singleWriters = THREADS - bulkWriters;
+        assertEquals(bulkWriters * 2000 + singleWriters * (200 - 67), taskManager.getAllTasks().size());
+        assertEquals(taskManager.getAllTasks().size(), taskManager.getPrioritizedTasks().size());
+    }
+
+    //проверка, что выборки и счетчики по статусу совпадают с хранилищем после одновременных смен статуса
+    @Test
+    void testFindByStatusFollowsConcurrentUpdates() throws Exception {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            created.add(taskManager.createTask(new Task("Задача", "Описание", Status.NEW)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                Status[] statuses = Status.values();
+                for (int i = offset; i < created.size(); i += THREADS) {
+                    Task task = created.get(i);
+                    taskManager.updateTask(new Task("Задача", "Описание", task.getId(), statuses[i % statuses.length]));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        for (Status status : Status.values()) {
+            Set<Integer> expected = taskManager.getAllTasks().stream()
+                    .filter(task -> task.getStatus() == status)
+                    .map(Task::getId)
+                    .collect(Collectors.toSet());
+            List<Integer> paged = new ArrayList<>();
+            TaskQuery query = new TaskQuery(status, null, null, null, null, 30);
+            while (true) {
+                Page<Task> page = taskManager.findTasks(query);
+                page.getItems().forEach(task -> paged.add(task.getId()));
+                if (!page.hasNext()) {
+                    break;
+                }
+                query = query.after(page.getNextCursor());
+            }
+            assertEquals(expected, new HashSet<>(paged));
+            assertEquals(expected.size(), paged.size());
+            assertEquals(expected.size(), taskManager.countTasksByStatus(status));
+            assertEquals(expected, taskManager.getTasksByStatus(status).stream()
+                    .map(Task::getId)
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    //проверка, что читатели получают копии эпиков, не меняющиеся при одновременном добавлении подзадач
+    @Test
+    void testEpicReadersSeeStableSnapshots() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        Epic before = taskManager.getEpicOrThrow(epic.getId());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> writer = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 2000; i++) {
+                taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId()));
+            }
+            return null;
+        });
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (!writer.isDone()) {
+                for (Epic snapshot : taskManager.getAllEpics()) {
+                    List<Integer> ids = snapshot.getSubtaskIds();
+                    assertEquals(snapshot.getSubtaskCount(), ids.size());
+                    assertEquals(ids.size(), new HashSet<>(ids).size());
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        writer.get(30, TimeUnit.SECONDS);
+        reader.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(0, before.getSubtaskCount());
+        assertEquals(2000, taskManager.getEpicOrThrow(epic.getId()).getSubtaskCount());
+    }
+}
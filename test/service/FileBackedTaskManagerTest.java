@@ -7,13 +7,17 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -431,6 +435,22 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals("45", fields[7], "Продолжительность не совпадает");
     }
 
+    //проверка, что файл с пересекающимися по времени задачами не загружается молча
+    @Test
+    void testLoadFromFileRejectsOverlappingTasks() throws IOException {
+        String csvContent = "id,type,name,status,description,epic,startTime,duration\n" +
+                "1,TASK,Задача,NEW,Описание,,2023-12-01T10:00:00,60\n" +
+                "2,EPIC,Эпик,NEW,Описание эпика,,,\n" +
+                "3,SUBTASK,Подзадача,NEW,Описание подзадачи,2,2023-12-01T10:30:00,30\n" +
+                "4,TASK,Соседняя,NEW,Описание,,2023-12-01T11:00:00,30\n";
+        Files.writeString(testFile.toPath(), csvContent);
+
+        ManagerValidateException e = assertThrows(ManagerValidateException.class,
+                () -> FileBackedTaskManager.loadFromFile(testFile));
+        assertTrue(e.getMessage().contains("1 и 3"), e.getMessage());
+        assertFalse(e.getMessage().contains("4"), e.getMessage());
+    }
+
     //проверка соответствия временных параметров после загрузки данным при создании файла
     @Test
     void testLoadFromFileWithTimeParameters() throws IOException {
@@ -465,7 +485,95 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(Duration.ofMinutes(30), subtask.getDuration());
     }
 
+    //проверка разбора всех вариантов записи времени начала, которые допускает ISO-формат
+    @Test
+    void testLoadFromFileParsesTimestampVariants() throws IOException {
+        String csvContent = "id,type,name,status,description,epic,startTime,duration\n" +
+                "1,TASK,Минуты,NEW,Описание,,2023-12-01T10:00,45\n" +
+                "2,TASK,Секунды,DONE,Описание,,2023-12-02T10:00:30,15\n" +
+                "3,TASK,Доли секунды,IN_PROGRESS,Описание,,2023-12-03T10:00:30.125,15\r\n";
+
+        Files.writeString(testFile.toPath(), csvContent);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(LocalDateTime.of(2023, 12, 1, 10, 0), loadedManager.getTaskOrThrow(1).getStartTime());
+        assertEquals(LocalDateTime.of(2023, 12, 2, 10, 0, 30), loadedManager.getTaskOrThrow(2).getStartTime());
+        assertEquals(LocalDateTime.of(2023, 12, 3, 10, 0, 30, 125_000_000),
+                loadedManager.getTaskOrThrow(3).getStartTime());
+        assertEquals(Status.IN_PROGRESS, loadedManager.getTaskOrThrow(3).getStatus());
+    }
+
     //проверка автоматического сохранения данных при создании/изменении
+    //проверка двоичного снимка: сохранение, автоопределение формата при загрузке и точность времени
+    @Test
+    void testBinarySnapshotRoundTrip() throws IOException {
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(testFile, SnapshotFormat.BINARY);
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+        binaryManager.createTask(new Task("Задача, с запятой", "Описание\nв две строки", Status.IN_PROGRESS,
+                Duration.ofMinutes(30), start));
+        binaryManager.createTask(new Task("Без времени", "Описание", Status.DONE));
+        Epic epic = binaryManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        binaryManager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId(),
+                Duration.ofMinutes(15), start.plusHours(1).plusSeconds(30).plusNanos(125_000_000)));
+
+        byte[] content = Files.readAllBytes(testFile.toPath());
+        assertEquals((byte) 0x89, content[0], "Снимок должен начинаться с двоичной сигнатуры");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(SnapshotFormat.BINARY, loadedManager.getSnapshotFormat());
+        assertEquals(2, loadedManager.getAllTasks().size());
+        Task loadedTask = loadedManager.getTaskOrThrow(1);
+        assertEquals("Задача, с запятой", loadedTask.getTitle());
+        assertEquals("Описание\nв две строки", loadedTask.getDescription());
+        assertEquals(Status.IN_PROGRESS, loadedTask.getStatus());
+        assertEquals(start, loadedTask.getStartTime());
+        assertEquals(Duration.ofMinutes(30), loadedTask.getDuration());
+        assertNull(loadedManager.getTaskOrThrow(2).getStartTime());
+
+        Subtask loadedSubtask = loadedManager.getAllSubtasks().get(0);
+        assertEquals(epic.getId(), loadedSubtask.getEpicId());
+        assertEquals(start.plusHours(1).plusSeconds(30).plusNanos(125_000_000), loadedSubtask.getStartTime());
+        Epic loadedEpic = loadedManager.getEpicOrThrow(epic.getId());
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(List.of(loadedSubtask.getId()), loadedEpic.getSubtaskIds());
+
+        // Загруженный менеджер продолжает писать в том же формате
+        loadedManager.createTask(new Task("Новая", "Описание", Status.NEW));
+        assertEquals((byte) 0x89, Files.readAllBytes(testFile.toPath())[0]);
+        assertEquals(3, FileBackedTaskManager.loadFromFile(testFile).getAllTasks().size());
+    }
+
+    //проверка, что поврежденные числа двоичного снимка дают ManagerSaveException, а не OOM или IAE
+    @Test
+    void testCorruptedBinarySnapshotNumbersFailLoad() throws IOException {
+        int[] header = {0x89, 'J', 'K', 'B', 1};
+        int[][] corruptions = {
+                // количество задач больше, чем поместится в файл
+                {0xFF, 0xFF, 0xFF, 0xFF, 0x07, 0, 0},
+                // количество за пределами int
+                {0xFF, 0xFF, 0xFF, 0xFF, 0x7F, 0, 0},
+                // одна задача с отрицательным id
+                {1, 0, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01, 0, 0, 1, 0, 0},
+                // одна задача с длиной названия больше файла
+                {1, 0, 0, 1, 0xFF, 0xFF, 0xFF, 0x7F, 0, 1, 0, 0},
+                // одна задача с продолжительностью, не помещающейся в Duration
+                {1, 0, 0, 1, 0, 0, 1, 0, 0xFE, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01},
+        };
+        for (int[] body : corruptions) {
+            byte[] content = new byte[header.length + body.length];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (byte) (i < header.length ? header[i] : body[i - header.length]);
+            }
+            Files.write(testFile.toPath(), content);
+
+            assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(testFile),
+                    "Поврежденный снимок должен давать ManagerSaveException: " + Arrays.toString(body));
+        }
+    }
+
     @Test
     void testAutoSaveOnOperations() throws IOException {
         // Проверяем, что операции автоматически сохраняются
@@ -496,4 +604,177 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertTrue(loadedTask.isPresent());
         assertEquals(Status.IN_PROGRESS, loadedTask.get().getStatus());
     }
-}
\ No newline at end of file
+
+    //проверка режима журнала: изменения дописываются в журнал и восстанавливаются после перезапуска
+    @Test
+    void testJournalModeReplaysChangesAfterRestart() throws IOException {
+        File file = tempDir.resolve("journal.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+
+        Task task = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE,
+                epic.getId(), Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 10, 10, 0)));
+        Task removed = manager.createTask(new Task("Удаляемая", "Описание", Status.NEW));
+
+        task.setStatus(Status.IN_PROGRESS);
+        manager.updateTask(task);
+        manager.deleteTaskById(removed.getId());
+        manager.close();
+
+        // Снимок не переписывался, все изменения лежат в журнале
+        assertFalse(file.exists());
+        Path journalPath = TaskJournal.pathFor(file.toPath());
+        assertEquals(6, Files.readAllLines(journalPath).size());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file,
+                TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(Status.IN_PROGRESS, loaded.getTaskOrThrow(task.getId()).getStatus());
+        assertEquals(Status.DONE, loaded.getEpicOrThrow(epic.getId()).getStatus());
+        assertEquals(1, loaded.getPrioritizedTasks().size());
+        assertEquals(subtask.getId(), loaded.getPrioritizedTasks().get(0).getId());
+        assertTrue(loaded.createTask(new Task("Новая", "Описание", Status.NEW)).getId() > subtask.getId());
+        loaded.close();
+    }
+
+    //проверка, что оборванная при сбое последняя запись журнала отбрасывается и обрезается при загрузке
+    @Test
+    void testTornJournalTailIsDiscardedOnRestart() throws IOException {
+        File file = tempDir.resolve("torn.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+        Task kept = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        Task other = manager.createTask(new Task("Другая", "Описание", Status.NEW));
+        manager.close();
+
+        // Удаление второй задачи оборвано посреди строки: без контрольной суммы оно удалило бы другую задачу
+        Path journalPath = TaskJournal.pathFor(file.toPath());
+        long intact = Files.size(journalPath);
+        manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+        manager.deleteTaskById(other.getId());
+        manager.close();
+        byte[] journal = Files.readAllBytes(journalPath);
+        Files.write(journalPath, Arrays.copyOf(journal, journal.length - 2));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file,
+                TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+        assertEquals(List.of(kept.getId(), other.getId()), loaded.getAllTasks().stream()
+                .map(Task::getId)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(intact, Files.size(journalPath));
+
+        // После обрезки журнал снова дописывается с целой записи
+        loaded.deleteTaskById(kept.getId());
+        loaded.close();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file,
+                TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+        assertEquals(List.of(other.getId()), reloaded.getAllTasks().stream()
+                .map(Task::getId)
+                .collect(Collectors.toList()));
+        reloaded.close();
+    }
+
+    //проверка, что испорченная запись не в конце журнала — ошибка загрузки, а не молча пропущенные данные
+    @Test
+    void testCorruptedJournalRecordInTheMiddleFailsLoad() throws IOException {
+        File file = tempDir.resolve("corrupt.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.ALWAYS, 0, 0);
+        manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        manager.createTask(new Task("Другая", "Описание", Status.NEW));
+        manager.close();
+
+        Path journalPath = TaskJournal.pathFor(file.toPath());
+        List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+        lines.set(0, lines.get(0).replace("Задача", "Задачи"));
+        Files.write(journalPath, lines, StandardCharsets.UTF_8);
+
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(file,
+                TaskJournal.SyncPolicy.ALWAYS, 0, 0));
+    }
+
+    //проверка, что ошибка фоновой свертки не теряет запись изменения, при котором она сообщена
+    @Test
+    void testCompactionFailureDoesNotDropJournalRecord() throws Exception {
+        File file = tempDir.resolve("failing.csv").toFile();
+        // Каталог на месте временного файла снимка: свертка не сможет его записать
+        Path tmp = tempDir.resolve("failing.csv.tmp");
+        Files.createDirectory(tmp);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.ALWAYS, 0, 1);
+
+        int attempts = 0;
+        boolean reported = false;
+        while (!reported && attempts < 500) {
+            attempts++;
+            try {
+                manager.createTask(new Task("Задача " + attempts, "Описание", Status.NEW));
+            } catch (ManagerSaveException e) {
+                reported = true;
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        manager.close();
+        assertTrue(reported, "Ошибка свертки должна быть сообщена");
+
+        Files.delete(tmp);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(attempts, loaded.getAllTasks().size());
+    }
+
+    //проверка свертки журнала в снимок и удаления эпика вместе с подзадачами
+    @Test
+    void testJournalCompactionFoldsRecordsIntoSnapshot() throws IOException {
+        File file = tempDir.resolve("journal.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, TaskJournal.SyncPolicy.NEVER, 0, 0);
+
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId()));
+        manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        manager.save();
+
+        Path journalPath = TaskJournal.pathFor(file.toPath());
+        assertEquals(0, Files.size(journalPath));
+        assertEquals(4, Files.readAllLines(file.toPath()).size());
+
+        manager.deleteEpicById(epic.getId());
+        manager.close();
+
+        // Классическая загрузка сворачивает хвост журнала в снимок и удаляет журнал
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+        assertEquals(1, loaded.getAllTasks().size());
+        assertFalse(Files.exists(journalPath));
+        assertEquals(2, Files.readAllLines(file.toPath()).size());
+    }
+
+    //проверка групповой фиксации: серия из 10 000 созданий приводит к небольшому числу перезаписей файла
+    @Test
+    void testGroupCommitBatchesRewritesUnderBurst() throws Exception {
+        File file = tempDir.resolve("group.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, 50, 1000);
+        int count = 10_000;
+
+        long started = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        long createdNanos = System.nanoTime() - started;
+        manager.commit().get(10, TimeUnit.SECONDS);
+        long committedNanos = System.nanoTime() - started;
+
+        long rewrites = manager.getFlushCount();
+        System.out.printf("Групповая фиксация: %d созданий, %d перезаписей файла, "
+                        + "создание %.1f мс (%.2f мкс/операция), до фиксации %.1f мс%n",
+                count, rewrites, createdNanos / 1e6, createdNanos / 1e3 / count, committedNanos / 1e6);
+
+        assertTrue(rewrites >= 1 && rewrites <= count / 100,
+                "Ожидается не более одной перезаписи на 100 изменений, фактически: " + rewrites);
+        assertTrue(manager.commit().isDone());
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(count, loaded.getAllTasks().size());
+    }
+}
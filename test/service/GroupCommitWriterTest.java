@@ -0,0 +1,40 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitWriterTest {
+
+    //проверка, что commit во время сброса группы не завершается раньше, чем сброс
+    @Test
+    void testCommitWaitsForBatchInFlight() throws Exception {
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        GroupCommitWriter writer = new GroupCommitWriter(() -> {
+            flushStarted.countDown();
+            releaseFlush.await();
+        }, 1, 1);
+        try {
+            CompletableFuture<Void> marked = writer.markDirty();
+            assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> committed = writer.commit();
+            assertFalse(committed.isDone());
+            assertFalse(marked.isDone());
+
+            releaseFlush.countDown();
+            committed.get(5, TimeUnit.SECONDS);
+            assertTrue(marked.isDone());
+            assertEquals(1, writer.getFlushCount());
+            assertTrue(writer.commit().isDone());
+        } finally {
+            releaseFlush.countDown();
+            writer.close();
+        }
+    }
+}
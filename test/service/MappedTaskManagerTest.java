@@ -0,0 +1,141 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected MappedTaskManager createTaskManager() {
+        return new MappedTaskManager(tempDir.resolve("board"), 256, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    //проверка восстановления задач, эпиков и подзадач после повторного открытия хранилища
+    @Test
+    void testReopenRestoresBoard() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0, 15);
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.IN_PROGRESS,
+                Duration.ofMinutes(45), start));
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание эпика"));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", null, Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), start.plusHours(2)));
+        taskManager.close();
+
+        MappedTaskManager reopened = new MappedTaskManager(tempDir.resolve("board"), 256, 8);
+
+        Task loadedTask = reopened.getTaskOrThrow(task.getId());
+        assertEquals("Задача", loadedTask.getTitle());
+        assertEquals(Status.IN_PROGRESS, loadedTask.getStatus());
+        assertEquals(start, loadedTask.getStartTime());
+        assertEquals(Duration.ofMinutes(45), loadedTask.getDuration());
+        assertNull(reopened.getSubtaskOrThrow(subtask.getId()).getDescription());
+
+        Epic loadedEpic = reopened.getEpicOrThrow(epic.getId());
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(List.of(subtask.getId()), loadedEpic.getSubtaskIds());
+        assertEquals(start.plusHours(2), loadedEpic.getStartTime());
+
+        Task next = reopened.createTask(new Task("Следующая", "Описание", Status.NEW));
+        assertTrue(next.getId() > subtask.getId(), "Счетчик id должен продолжаться после загрузки");
+        reopened.close();
+    }
+
+    //проверка, что обновление переносит задачу в свободный слот, а удаленные слоты используются повторно
+    @Test
+    void testUpdateMovesToFreeSlotAndDeleteFreesIt() throws IOException {
+        Path board = tempDir.resolve("board");
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        for (int i = 0; i < 6; i++) {
+            taskManager.createTask(new Task("Заполнение " + i, "Описание", Status.NEW));
+        }
+        assertEquals(1, countSegments(board), "Семь задач помещаются в один сегмент");
+
+        // Новая версия пишется в восьмой слот, прежний освобождается — и используется следующим обновлением
+        for (int i = 0; i < 3; i++) {
+            task.setStatus(Status.DONE);
+            task.setTitle("Обновленная задача " + i);
+            taskManager.updateTask(task);
+        }
+        assertEquals(1, countSegments(board), "Обновление должно освобождать прежний слот");
+        taskManager.createTask(new Task("Заполнение", "Описание", Status.NEW));
+
+        taskManager.deleteTaskById(task.getId());
+        taskManager.createTask(new Task("Новая", "Описание", Status.NEW));
+        assertEquals(1, countSegments(board), "Новая задача должна занять освободившийся слот");
+        taskManager.close();
+
+        MappedTaskManager reopened = new MappedTaskManager(board, 256, 8);
+        assertEquals(8, reopened.getAllTasks().size());
+        assertTrue(reopened.getTaskById(task.getId()).isEmpty());
+        reopened.close();
+    }
+
+    //проверка восстановления после сбоя посреди обновления: берется последняя целая версия задачи
+    @Test
+    void testReopenAfterInterruptedUpdatePicksLatestIntactVersion() throws IOException {
+        Path board = tempDir.resolve("board");
+        Task task = taskManager.createTask(new Task("Первая", "Описание", Status.NEW));
+        task.setTitle("Вторая");
+        taskManager.updateTask(task);
+        taskManager.close();
+
+        // Сбой между пометкой нового слота и освобождением прежнего: заняты оба слота
+        Path segment = board.resolve("segment-00000.dat");
+        byte[] bytes = Files.readAllBytes(segment);
+        int firstSlot = 16;
+        int secondSlot = 16 + 256;
+        bytes[firstSlot] = 1;
+        Files.write(segment, bytes);
+        MappedTaskManager reopened = new MappedTaskManager(board, 256, 8);
+        assertEquals("Вторая", reopened.getTaskOrThrow(task.getId()).getTitle());
+        assertEquals(1, reopened.getAllTasks().size());
+        reopened.close();
+
+        // Новая версия дошла до диска не целиком: контрольная сумма не сходится, остается прежняя
+        bytes = Files.readAllBytes(segment);
+        bytes[firstSlot] = 1;
+        bytes[secondSlot + 60] ^= 0x55;
+        Files.write(segment, bytes);
+        reopened = new MappedTaskManager(board, 256, 8);
+        assertEquals("Первая", reopened.getTaskOrThrow(task.getId()).getTitle());
+        reopened.close();
+    }
+
+    //проверка отказа для задачи, не помещающейся в слот: состояние менеджера не меняется
+    @Test
+    void testTaskLargerThanSlotIsRejected() {
+        Task task = new Task("Задача", "x".repeat(300), Status.NEW);
+
+        assertThrows(ManagerSaveException.class, () -> taskManager.createTask(task));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+
+    private static long countSegments(Path board) throws IOException {
+        try (Stream<Path> files = Files.list(board)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedHistoryManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        PartitionedHistoryManager.clearCurrentClient();
+    }
+
+    //проверка, что у каждого клиента своя история, а удаление задачи убирает ее у всех
+    @Test
+    void testClientsHaveSeparateHistories() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(10, 10, Duration.ofMinutes(1), clock::get);
+
+        viewAs(history, "alice", task(1));
+        viewAs(history, "bob", task(2));
+        viewAs(history, "alice", task(2));
+
+        assertEquals(List.of(1, 2), ids(history.getHistory("alice")));
+        assertEquals(List.of(2), ids(history.getHistory("bob")));
+        PartitionedHistoryManager.setCurrentClient("bob");
+        assertEquals(List.of(2), ids(history.getHistory()));
+
+        history.remove(2);
+        assertEquals(List.of(1), ids(history.getHistory("alice")));
+        assertTrue(history.getHistory("bob").isEmpty());
+    }
+
+    //проверка ограничения памяти: емкость раздела и число клиентов
+    @Test
+    void testPartitionsAndClientsAreBounded() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(2, 3, Duration.ofMinutes(1), clock::get);
+        for (int id = 1; id <= 5; id++) {
+            viewAs(history, "alice", task(id));
+        }
+        assertEquals(List.of(4, 5), ids(history.getHistory("alice")));
+
+        for (int client = 0; client < 10; client++) {
+            clock.addAndGet(1);
+            viewAs(history, "client-" + client, task(client));
+        }
+        assertEquals(3, history.getClientCount());
+        assertTrue(history.getHistory("alice").isEmpty(), "Давно не использованный раздел должен быть вытеснен");
+        assertEquals(List.of(9), ids(history.getHistory("client-9")));
+    }
+
+    //проверка удаления простаивающих разделов по таймауту
+    @Test
+    void testIdlePartitionsAreEvicted() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(5, 100, Duration.ofSeconds(10),
+                clock::get);
+        viewAs(history, "idle", task(1));
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        viewAs(history, "active", task(2));
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        viewAs(history, "active", task(3));
+
+        assertEquals(1, history.getClientCount());
+        assertEquals(List.of(2, 3), ids(history.getHistory("active")));
+    }
+
+    //проверка, что после одновременного создания разделов их число возвращается к пределу
+    @Test
+    void testClientLimitHoldsUnderConcurrentCreation() throws Exception {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(5, 4, Duration.ofMinutes(1), clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    viewAs(history, "client-" + thread + "-" + i, task(i));
+                }
+                PartitionedHistoryManager.clearCurrentClient();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(4, history.getClientCount());
+        assertEquals(4, history.size());
+    }
+
+    private static void viewAs(PartitionedHistoryManager history, String clientId, Task task) {
+        PartitionedHistoryManager.setCurrentClient(clientId);
+        history.add(task);
+    }
+
+    private static Task task(int id) {
+        return new Task("Задача " + id, "Описание", id, Status.NEW);
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
@@ -4,13 +4,17 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.enums.Status;
+import model.enums.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -128,6 +132,53 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         });
     }
 
+    //проверка пересечений с соседями: стык интервалов допустим, вложение и перекрытие справа - нет
+    @Test
+    void testTimeOverlapWithNeighbours() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 10, 10, 0);
+
+        taskManager.createTask(new Task("Задача 1", "Описание", Status.NEW, Duration.ofMinutes(60), base));
+        taskManager.createTask(new Task("Задача 2", "Описание", Status.NEW,
+                Duration.ofMinutes(60), base.plusHours(3)));
+
+        assertDoesNotThrow(() -> taskManager.createTask(new Task("Стык", "Описание", Status.NEW,
+                Duration.ofMinutes(120), base.plusHours(1))));
+        assertThrows(ManagerValidateException.class, () -> taskManager.createTask(new Task("Вложенная",
+                "Описание", Status.NEW, Duration.ofMinutes(10), base.plusMinutes(200))));
+        assertThrows(ManagerValidateException.class, () -> taskManager.createTask(new Task("Охватывающая",
+                "Описание", Status.NEW, Duration.ofMinutes(600), base.minusHours(1))));
+    }
+
+    //проверка, что обновление задачи не конфликтует с ее собственным прежним интервалом
+    @Test
+    void testUpdateTaskTimeDoesNotOverlapWithItself() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 10, 10, 0);
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW,
+                Duration.ofMinutes(60), base));
+
+        task.setStartTime(base.plusMinutes(30));
+        assertDoesNotThrow(() -> taskManager.updateTask(task));
+
+        Task other = new Task("Другая", "Описание", Status.NEW, Duration.ofMinutes(30), base);
+        assertDoesNotThrow(() -> taskManager.createTask(other));
+        assertEquals(2, taskManager.getPrioritizedTasks().size());
+    }
+
+    //проверка, что после удаления эпика время его подзадач освобождается
+    @Test
+    void testDeleteEpicReleasesSubtaskTime() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 10, 10, 0);
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(60), base));
+
+        taskManager.deleteEpicById(epic.getId());
+
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        assertDoesNotThrow(() -> taskManager.createTask(new Task("Задача", "Описание", Status.NEW,
+                Duration.ofMinutes(60), base)));
+    }
+
     //проверка обновления времени выполнения эпика после удаления подзадачи
     @Test
     void testUpdateEpicTimeAfterSubtaskDeletion() {
@@ -327,6 +378,46 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(Status.IN_PROGRESS, updatedEpic.get().getStatus());
     }
 
+    //проверка пересчета статуса и времени эпика при обновлении и переносе подзадач
+    @Test
+    void testEpicAggregatesFollowSubtaskUpdates() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 10, 10, 0);
+        Epic epic1 = taskManager.createEpic(new Epic("Эпик 1", "Описание"));
+        Epic epic2 = taskManager.createEpic(new Epic("Эпик 2", "Описание"));
+
+        Subtask subtask1 = taskManager.createSubtask(new Subtask("Подзадача 1", "Описание",
+                Status.DONE, epic1.getId(), Duration.ofMinutes(30), base));
+        Subtask subtask2 = taskManager.createSubtask(new Subtask("Подзадача 2", "Описание",
+                Status.NEW, epic1.getId(), Duration.ofMinutes(60), base.plusHours(2)));
+
+        assertEquals(Status.IN_PROGRESS, epic1.getStatus());
+        assertEquals(base.plusHours(3), epic1.getEndTime());
+
+        subtask2.setStatus(Status.DONE);
+        subtask2.setStartTime(base.plusHours(1));
+        taskManager.updateSubtask(subtask2);
+
+        assertEquals(Status.DONE, epic1.getStatus());
+        assertEquals(base, epic1.getStartTime());
+        assertEquals(base.plusHours(2), epic1.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic1.getDuration());
+
+        taskManager.updateSubtask(new Subtask("Подзадача 1", "Описание", subtask1.getId(),
+                Status.DONE, epic2.getId(), Duration.ofMinutes(30), base));
+
+        assertEquals(base.plusHours(1), epic1.getStartTime());
+        assertEquals(Duration.ofMinutes(60), epic1.getDuration());
+        assertEquals(base, epic2.getStartTime());
+        assertEquals(Status.DONE, epic2.getStatus());
+
+        taskManager.deleteSubtaskById(subtask2.getId());
+
+        assertEquals(Status.NEW, epic1.getStatus());
+        assertNull(epic1.getStartTime());
+        assertNull(epic1.getEndTime());
+        assertEquals(Duration.ZERO, epic1.getDuration());
+    }
+
 
     // Проверьте, что объект Epic нельзя добавить в самого себя в виде подзадачи
     @Test
@@ -392,5 +483,275 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Подзадача с некорректной ссылкой не должна быть добавлена в менеджер");
     }
 
+    //проверка обхода без копирования: те же элементы, что и в списках, приоритеты по порядку
+    @Test
+    void testForEachVisitsSameElementsAsLists() {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 1, 9, 0);
+        taskManager.createTask(new Task("Поздняя", "Описание", Status.NEW, Duration.ofMinutes(10), start.plusHours(2)));
+        taskManager.createTask(new Task("Без времени", "Описание", Status.NEW));
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        taskManager.createSubtask(new Subtask("Ранняя", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(10), start));
+
+        List<Task> tasks = new ArrayList<>();
+        taskManager.forEachTask(tasks::add);
+        List<Epic> epics = new ArrayList<>();
+        taskManager.forEachEpic(epics::add);
+        List<Subtask> subtasks = new ArrayList<>();
+        taskManager.forEachSubtask(subtasks::add);
+        List<Task> prioritized = new ArrayList<>();
+        taskManager.forEachPrioritized(prioritized::add);
+
+        assertEquals(new HashSet<>(taskManager.getAllTasks()), new HashSet<>(tasks));
+        assertEquals(taskManager.getAllEpics(), epics);
+        assertEquals(taskManager.getAllSubtasks(), subtasks);
+        assertEquals(taskManager.getPrioritizedTasks(), prioritized);
+        assertEquals(List.of("Ранняя", "Поздняя"),
+                prioritized.stream().map(Task::getTitle).collect(Collectors.toList()));
+    }
+
+    //проверка постраничной выборки по id: страницы идут подряд без пропусков, фильтр по статусу
+    @Test
+    void testFindTasksPagesByIdWithStatusFilter() {
+        List<Integer> doneIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Task task = taskManager.createTask(new Task("Задача " + i, "Описание", i % 2 == 0 ? Status.DONE : Status.NEW));
+            if (task.getStatus() == Status.DONE) {
+                doneIds.add(task.getId());
+            }
+        }
+
+        List<Integer> pagedIds = new ArrayList<>();
+        TaskQuery query = TaskQuery.firstPage(3);
+        Page<Task> page;
+        int pages = 0;
+        do {
+            page = taskManager.findTasks(query);
+            page.getItems().forEach(task -> pagedIds.add(task.getId()));
+            query = query.after(page.getNextCursor());
+            pages++;
+        } while (page.hasNext());
+        assertEquals(3, pages);
+        assertEquals(taskManager.getAllTasks().stream().map(Task::getId).sorted().collect(Collectors.toList()),
+                pagedIds);
+
+        Page<Task> done = taskManager.findTasks(new TaskQuery(Status.DONE, null, null, null, null, 10));
+        assertEquals(doneIds, done.getItems().stream().map(Task::getId).collect(Collectors.toList()));
+        assertFalse(done.hasNext());
+
+        // Статус, измененный обновлением, переносит задачу в другую выборку
+        Task moved = taskManager.getAllTasks().stream().filter(task -> task.getId() == doneIds.get(0)).findFirst().get();
+        taskManager.updateTask(new Task(moved.getTitle(), moved.getDescription(), moved.getId(), Status.NEW));
+        assertEquals(doneIds.size() - 1,
+                taskManager.findTasks(new TaskQuery(Status.DONE, null, null, null, null, 10)).getItems().size());
+    }
+
+    //проверка выборки эпиков по статусу, пересчитанному из подзадач
+    @Test
+    void testFindEpicsFollowsRecalculatedStatus() {
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        taskManager.createEpic(new Epic("Пустой эпик", "Описание"));
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId(),
+                Duration.ZERO, null));
+
+        List<Epic> done = taskManager.findEpics(new TaskQuery(Status.DONE, null, null, null, null, 10)).getItems();
+        assertEquals(1, done.size());
+        assertEquals(epic.getId(), done.get(0).getId());
+        assertEquals(1, taskManager.findEpics(new TaskQuery(Status.NEW, null, null, null, null, 10)).getItems().size());
+        assertEquals(1, taskManager.findSubtasks(new TaskQuery(Status.DONE, null, null, null, null, 10))
+                .getItems().size());
+    }
 
-}
\ No newline at end of file
+    //проверка постраничной выборки приоритетного списка в окне времени и с фильтром по типу
+    @Test
+    void testFindPrioritizedWithinTimeWindow() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 8, 0);
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        for (int i = 0; i < 6; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW, Duration.ofMinutes(30),
+                    start.plusHours(i)));
+        }
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(20), start.plusHours(2).plusMinutes(35)));
+
+        TaskQuery query = new TaskQuery(null, null, start.plusHours(1), start.plusHours(4), null, 2);
+        Page<Task> first = taskManager.findPrioritized(query);
+        assertEquals(List.of("Задача 1", "Задача 2"),
+                first.getItems().stream().map(Task::getTitle).collect(Collectors.toList()));
+        assertTrue(first.hasNext());
+        Page<Task> second = taskManager.findPrioritized(query.after(first.getNextCursor()));
+        assertEquals(List.of("Подзадача", "Задача 3"),
+                second.getItems().stream().map(Task::getTitle).collect(Collectors.toList()));
+        assertFalse(second.hasNext());
+
+        Page<Task> subtasksOnly = taskManager.findPrioritized(
+                new TaskQuery(null, TaskType.SUBTASK, null, null, null, 10));
+        assertEquals(List.of("Подзадача"),
+                subtasksOnly.getItems().stream().map(Task::getTitle).collect(Collectors.toList()));
+    }
+
+    //проверка выборок и счетчиков по статусу после создания, обновления, удаления и пересчета эпика
+    @Test
+    void testStatusQueriesAndCountsFollowMutations() {
+        Task first = taskManager.createTask(new Task("Первая", "Описание", Status.NEW));
+        Task second = taskManager.createTask(new Task("Вторая", "Описание", Status.IN_PROGRESS));
+        taskManager.createTask(new Task("Третья", "Описание", Status.NEW));
+        assertEquals(2, taskManager.countTasksByStatus(Status.NEW));
+        assertEquals(1, taskManager.countTasksByStatus(Status.IN_PROGRESS));
+
+        taskManager.updateTask(new Task("Вторая", "Описание", second.getId(), Status.DONE));
+        taskManager.deleteTaskById(first.getId());
+        assertEquals(1, taskManager.countTasksByStatus(Status.NEW));
+        assertEquals(0, taskManager.countTasksByStatus(Status.IN_PROGRESS));
+        assertEquals(List.of(second.getId()),
+                taskManager.getTasksByStatus(Status.DONE).stream().map(Task::getId).collect(Collectors.toList()));
+
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        assertEquals(1, taskManager.countEpicsByStatus(Status.NEW));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.IN_PROGRESS,
+                epic.getId()));
+        assertEquals(1, taskManager.countEpicsByStatus(Status.IN_PROGRESS));
+        assertEquals(0, taskManager.countEpicsByStatus(Status.NEW));
+        assertEquals(List.of(subtask.getId()), taskManager.getSubtasksByStatus(Status.IN_PROGRESS).stream()
+                .map(Subtask::getId).collect(Collectors.toList()));
+
+        taskManager.updateSubtask(new Subtask("Подзадача", "Описание", subtask.getId(), Status.DONE, epic.getId()));
+        assertEquals(1, taskManager.countEpicsByStatus(Status.DONE));
+        assertEquals(1, taskManager.countSubtasksByStatus(Status.DONE));
+
+        taskManager.deleteAllSubtasks();
+        assertEquals(0, taskManager.countSubtasksByStatus(Status.DONE));
+        assertEquals(List.of(epic.getId()),
+                taskManager.getEpicsByStatus(Status.NEW).stream().map(Epic::getId).collect(Collectors.toList()));
+
+        taskManager.deleteAllTasks();
+        taskManager.deleteAllEpics();
+        for (Status status : Status.values()) {
+            assertEquals(0, taskManager.countTasksByStatus(status) + taskManager.countEpicsByStatus(status)
+                    + taskManager.countSubtasksByStatus(status));
+        }
+    }
+
+    //проверка пакетного создания: задачи получают id, эпики пересчитываются по всем подзадачам пакета
+    @Test
+    void testBulkCreation() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        List<Task> tasks = taskManager.createTasksBulk(List.of(
+                new Task("Задача 2", "Описание", Status.NEW, Duration.ofMinutes(30), base.plusHours(1)),
+                new Task("Задача 1", "Описание", Status.NEW, Duration.ofMinutes(60), base),
+                new Task("Без времени", "Описание", Status.DONE)));
+        assertEquals(3, tasks.size());
+        assertEquals(3, new HashSet<>(tasks.stream().map(Task::getId).collect(Collectors.toList())).size());
+        assertEquals(List.of("Задача 1", "Задача 2"),
+                taskManager.getPrioritizedTasks().stream().map(Task::getTitle).collect(Collectors.toList()));
+
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        List<Subtask> subtasks = taskManager.createSubtasksBulk(List.of(
+                new Subtask("Подзадача 1", "Описание", Status.DONE, epic.getId(),
+                        Duration.ofMinutes(30), base.plusHours(3)),
+                new Subtask("Подзадача 2", "Описание", Status.NEW, epic.getId(),
+                        Duration.ofMinutes(30), base.plusHours(2))));
+        assertEquals(2, subtasks.size());
+        Epic stored = taskManager.getEpicOrThrow(epic.getId());
+        assertEquals(2, stored.getSubtaskIds().size());
+        assertEquals(Status.IN_PROGRESS, stored.getStatus());
+        assertEquals(base.plusHours(2), stored.getStartTime());
+        assertEquals(base.plusHours(3).plusMinutes(30), stored.getEndTime());
+    }
+
+    //проверка, что пакет с пересечением внутри себя или с существующей задачей отвергается целиком
+    @Test
+    void testBulkCreationIsAllOrNothing() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new Task("Существующая", "Описание", Status.NEW, Duration.ofMinutes(60), base));
+
+        assertThrows(ManagerValidateException.class, () -> taskManager.createTasksBulk(List.of(
+                new Task("Длинная", "Описание", Status.NEW, Duration.ofMinutes(180), base.plusHours(2)),
+                new Task("Соседняя", "Описание", Status.NEW, Duration.ofMinutes(10), base.plusHours(6)),
+                new Task("Вложенная", "Описание", Status.NEW, Duration.ofMinutes(10), base.plusHours(4)))));
+        assertThrows(ManagerValidateException.class, () -> taskManager.createTasksBulk(List.of(
+                new Task("Свободная", "Описание", Status.NEW, Duration.ofMinutes(10), base.plusHours(2)),
+                new Task("Поверх существующей", "Описание", Status.NEW, Duration.ofMinutes(10),
+                        base.plusMinutes(30)))));
+        assertThrows(NotFoundException.class, () -> taskManager.createSubtasksBulk(List.of(
+                new Subtask("Подзадача", "Описание", Status.NEW, 999))));
+
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+    }
+
+    //проверка, что задача пакета с заданным id получает новый id и не подменяет существующую
+    @Test
+    void testBulkCreationIgnoresGivenIds() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task existing = taskManager.createTask(new Task("Существующая", "Описание", Status.NEW,
+                Duration.ofMinutes(60), base));
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+
+        assertThrows(ManagerValidateException.class, () -> taskManager.createTasksBulk(List.of(new Task("Поверх",
+                "Описание", existing.getId(), Status.NEW, Duration.ofMinutes(10), base.plusMinutes(10)))));
+        Task copy = taskManager.createTasksBulk(List.of(new Task("Копия", "Описание", existing.getId(),
+                Status.DONE, Duration.ofMinutes(60), base.plusHours(2)))).get(0);
+        Subtask subtask = taskManager.createSubtasksBulk(List.of(new Subtask("Подзадача", "Описание",
+                epic.getId(), Status.NEW, epic.getId()))).get(0);
+
+        assertNotEquals(existing.getId(), copy.getId());
+        assertNotEquals(epic.getId(), subtask.getId());
+        assertEquals("Существующая", taskManager.getTaskOrThrow(existing.getId()).getTitle());
+        assertEquals("Эпик", taskManager.getEpicOrThrow(epic.getId()).getTitle());
+        assertEquals(2, taskManager.getPrioritizedTasks().size());
+        assertEquals(1, taskManager.countTasksByStatus(Status.NEW));
+        assertEquals(1, taskManager.countTasksByStatus(Status.DONE));
+    }
+
+    //проверка поиска свободных промежутков: задача, начавшаяся до from, эпики и открытый последний промежуток
+    @Test
+    void testFindFreeSlots() {
+        LocalDateTime base = LocalDateTime.of(2024, 4, 1, 9, 0);
+        taskManager.createTask(new Task("Ранняя", "Описание", Status.NEW, Duration.ofMinutes(90), base));
+        taskManager.createTask(new Task("Точка", "Описание", Status.NEW, Duration.ZERO, base));
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        taskManager.createSubtask(new Subtask("Подзадача 1", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(30), base.plusHours(2)));
+        taskManager.createSubtask(new Subtask("Подзадача 2", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(60), base.plusHours(4)));
+
+        List<TimeSlot> slots = taskManager.findFreeSlots(base.plusMinutes(30), Duration.ofMinutes(30), 10);
+        assertEquals(List.of(base.plusMinutes(90), base.plusMinutes(150), base.plusHours(5)),
+                slots.stream().map(TimeSlot::getStart).collect(Collectors.toList()));
+        assertEquals(base.plusHours(2), slots.get(0).getEnd());
+        assertEquals(base.plusHours(4), slots.get(1).getEnd());
+        assertNull(slots.get(2).getEnd());
+
+        List<TimeSlot> longSlots = taskManager.findFreeSlots(base.plusMinutes(30), Duration.ofMinutes(90), 1);
+        assertEquals(1, longSlots.size());
+        assertEquals(base.plusMinutes(150), longSlots.get(0).getStart());
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.findFreeSlots(base, Duration.ZERO, 1));
+    }
+
+    //проверка автоматического размещения задачи в первый подходящий свободный промежуток
+    @Test
+    void testPlaceTaskInEarliestFreeSlot() {
+        LocalDateTime base = LocalDateTime.of(2024, 4, 1, 9, 0);
+        taskManager.createTask(new Task("Первая", "Описание", Status.NEW, Duration.ofMinutes(60), base));
+        taskManager.createTask(new Task("Вторая", "Описание", Status.NEW,
+                Duration.ofMinutes(60), base.plusMinutes(90)));
+
+        Task shortTask = taskManager.placeTask(new Task("Короткая", "Описание", Status.NEW,
+                Duration.ofMinutes(30), null), base);
+        assertEquals(base.plusMinutes(60), shortTask.getStartTime());
+
+        Task longTask = taskManager.placeTask(new Task("Длинная", "Описание", Status.NEW,
+                Duration.ofMinutes(45), null), base);
+        assertEquals(base.plusMinutes(150), longTask.getStartTime());
+
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = taskManager.placeSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(),
+                Duration.ofMinutes(15), null), base.minusHours(1));
+        assertEquals(base.minusHours(1), subtask.getStartTime());
+        assertEquals(5, taskManager.getPrioritizedTasks().stream()
+                .filter(task -> !(task instanceof Epic)).count());
+    }
+}
@@ -0,0 +1,123 @@
+package service;
+
+import model.Task;
+import model.enums.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeUtilsTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    //проверка, что кэш границ задачи сбрасывается при изменении начала и длительности
+    @Test
+    void testTimeBoundsFollowSetters() {
+        Task task = new Task("Задача", "", 1, Status.NEW, Duration.ofMinutes(30), BASE);
+        assertEquals(BASE.plusMinutes(30), task.getEndTime());
+        assertEquals(TimeUtils.toEpochMinute(BASE) + 30, task.getEndMinute());
+        assertTrue(task.isMinuteAligned());
+
+        task.setDuration(Duration.ofMinutes(45));
+        assertEquals(BASE.plusMinutes(45), task.getEndTime());
+        assertEquals(TimeUtils.toEpochMinute(BASE) + 45, task.getEndMinute());
+
+        task.setStartTime(BASE.plusSeconds(10));
+        assertEquals(TimeUtils.toEpochMinute(BASE), task.getStartMinute());
+        assertEquals(TimeUtils.toEpochMinute(BASE) + 46, task.getEndMinute());
+        assertFalse(task.isMinuteAligned());
+
+        task.setStartTime(null);
+        assertNull(task.getEndTime());
+        assertEquals(Task.NO_TIME, task.getStartMinute());
+    }
+
+    //проверка, что пересечение внутри одной минуты определяется точно, а не по округленным минутам
+    @Test
+    void testOverlapIsExactWithinMinute() {
+        Task first = new Task("Первая", "", 1, Status.NEW, Duration.ofMinutes(1), BASE.plusSeconds(10));
+        Task touching = new Task("Вторая", "", 2, Status.NEW, Duration.ofMinutes(1), BASE.plusSeconds(70));
+        Task crossing = new Task("Третья", "", 3, Status.NEW, Duration.ofMinutes(1), BASE.plusSeconds(69));
+        Task aligned = new Task("Четвертая", "", 4, Status.NEW, Duration.ofMinutes(5), BASE.plusMinutes(2));
+
+        assertFalse(TimeUtils.isOverlap(first, touching));
+        assertTrue(TimeUtils.isOverlap(first, crossing));
+        assertFalse(TimeUtils.isOverlap(first, aligned));
+        assertTrue(TimeUtils.isOverlap(touching, aligned));
+        assertTrue(TimeUtils.compareByStart(first, crossing) < 0);
+        assertTrue(TimeUtils.compareByStart(aligned, new Task("", "", Status.NEW)) < 0);
+    }
+
+    //проверка, что проход по отсортированным интервалам находит те же пары, что и попарный перебор
+    @Test
+    void testFindConflictsMatchesPairwiseCheck() {
+        Random random = new Random(42);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            tasks.add(new Task("Задача", "", id, Status.NEW, Duration.ofMinutes(random.nextInt(90)),
+                    BASE.plusMinutes(random.nextInt(3000)).plusSeconds(random.nextInt(2) * 30)));
+        }
+        tasks.add(new Task("Без времени", "", 301, Status.NEW));
+
+        Set<TimeConflict> expected = new HashSet<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (int j = i + 1; j < tasks.size(); j++) {
+                Task first = tasks.get(i);
+                Task second = tasks.get(j);
+                if (TimeUtils.isOverlap(first, second)) {
+                    boolean ordered = TimeUtils.compareByStart(first, second) <= 0;
+                    expected.add(ordered ? new TimeConflict(first, second) : new TimeConflict(second, first));
+                }
+            }
+        }
+        List<TimeConflict> conflicts = TimeUtils.findConflicts(tasks);
+        assertFalse(expected.isEmpty());
+        assertTrue(TimeUtils.hasMutualOverlap(tasks));
+        assertEquals(expected.size(), conflicts.size());
+        for (TimeConflict conflict : conflicts) {
+            assertTrue(expected.contains(conflict) || expected.contains(
+                    new TimeConflict(conflict.getSecond(), conflict.getFirst())), conflict.toString());
+        }
+    }
+
+    //проверка, что задача нулевой длительности внутри чужого интервала считается пересечением
+    @Test
+    void testZeroDurationTaskInsideInterval() {
+        Task longTask = new Task("Длинная", "", 1, Status.NEW, Duration.ofMinutes(60), BASE);
+        Task sameStart = new Task("С тем же началом", "", 2, Status.NEW, Duration.ofMinutes(90), BASE.plusMinutes(30));
+        Task point = new Task("Точка", "", 3, Status.NEW, Duration.ZERO, BASE.plusMinutes(30));
+
+        assertEquals(Set.of(new TimeConflict(longTask, sameStart), new TimeConflict(longTask, point)),
+                new HashSet<>(TimeUtils.findConflicts(List.of(point, sameStart, longTask))));
+        assertTrue(TimeUtils.hasMutualOverlap(List.of(sameStart, point, longTask)));
+        assertFalse(TimeUtils.hasMutualOverlap(List.of(sameStart, point)));
+    }
+
+    //проверка, что параллельный вариант на большом наборе дает те же пары, что и последовательный
+    @Test
+    void testParallelFindConflictsMatchesSequential() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 40_000; id++) {
+            // Каждая пятая задача длиннее шага и задевает следующую; одна длинная задача охватывает многие участки
+            int minutes = id % 5 == 0 ? 15 : 5;
+            tasks.add(new Task("Задача", "", id, Status.NEW, Duration.ofMinutes(minutes), BASE.plusMinutes(10L * id)));
+        }
+        tasks.add(new Task("Длинная", "", 40_001, Status.NEW, Duration.ofDays(2), BASE));
+
+        Set<TimeConflict> sequential = new HashSet<>(TimeUtils.findConflicts(tasks));
+        assertEquals(7_999 + 287, sequential.size());
+        for (int chunks : new int[]{2, 7, 64}) {
+            List<TimeConflict> parallel = TimeUtils.findConflicts(tasks, chunks);
+            assertEquals(sequential.size(), parallel.size());
+            assertEquals(sequential, new HashSet<>(parallel));
+        }
+        assertEquals(sequential, new HashSet<>(TimeUtils.findConflictsParallel(tasks)));
+    }
+}
@@ -241,6 +241,37 @@ public class inMemoryHistoryManagerTest {
         assertEquals(task4, history.get(1), "task4 должен остаться последним");
     }
 
+    //проверка LRU-вытеснения: при переполнении уходит давно не просмотренная задача
+    @Test
+    void testBoundedHistoryEvictsLeastRecentlyViewed() {
+        HistoryManager bounded = Managers.getBoundedHistory(3);
+        for (int id = 1; id <= 3; id++) {
+            bounded.add(createTestTask(id, "Задача " + id));
+        }
+        bounded.add(createTestTask(1, "Задача 1"));
+        bounded.add(createTestTask(4, "Задача 4"));
+
+        List<Task> history = bounded.getHistory();
+        assertEquals(3, history.size(), "История не должна превышать емкость");
+        assertEquals(List.of(3, 1, 4), List.of(history.get(0).getId(), history.get(1).getId(), history.get(2).getId()),
+                "Вытесняется задача 2 — ее просматривали раньше всех");
+    }
+
+    //проверка выдачи только последних просмотров
+    @Test
+    void testGetHistoryWithLimitReturnsMostRecent() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(createTestTask(id, "Задача " + id));
+        }
+
+        List<Task> recent = historyManager.getHistory(2);
+        assertEquals(2, recent.size());
+        assertEquals(4, recent.get(0).getId());
+        assertEquals(5, recent.get(1).getId());
+        assertEquals(5, historyManager.getHistory(10).size());
+        assertTrue(historyManager.getHistory(0).isEmpty());
+    }
+
     // Вспомогательный метод для создания тестовых задач
     private Task createTestTask(int id, String title) {
         Task task = new Task(
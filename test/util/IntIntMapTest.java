@@ -0,0 +1,41 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+
+    //проверка совпадения с HashMap на случайной последовательности вставок и удалений
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.remove(key));
+                expected.remove(key);
+            } else {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous != null ? previous : IntIntMap.MISSING, map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.get(key));
+        }
+    }
+
+    //проверка, что отрицательное значение не принимается
+    @Test
+    void testNegativeValueIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new IntIntMap().put(1, -1));
+    }
+}
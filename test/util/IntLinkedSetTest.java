@@ -0,0 +1,57 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedSetTest {
+
+    //проверка, что удаление из середины сохраняет порядок добавления, а повторное добавление не дублирует
+    @Test
+    void testRemoveKeepsInsertionOrder() {
+        IntLinkedSet set = new IntLinkedSet();
+        for (int i = 1; i <= 10; i++) {
+            set.add(i * 10);
+        }
+
+        assertFalse(set.add(20));
+        assertTrue(set.remove(30));
+        assertFalse(set.remove(35));
+        assertTrue(set.remove(100));
+        assertTrue(set.remove(10));
+        assertEquals(7, set.size());
+        assertFalse(set.contains(30));
+        assertTrue(set.contains(90));
+        assertEquals(List.of(20, 40, 50, 60, 70, 80, 90), set.toList());
+
+        set.add(30);
+        assertEquals(List.of(20, 40, 50, 60, 70, 80, 90, 30), set.toList());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(20));
+    }
+
+    //проверка на случайных операциях против LinkedHashSet
+    @Test
+    void testMatchesLinkedHashSet() {
+        Random random = new Random(17);
+        IntLinkedSet set = new IntLinkedSet();
+        LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(500) * 7;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+        assertEquals(new ArrayList<>(expected), set.toList());
+        assertEquals(expected.size(), set.size());
+    }
+}
@@ -0,0 +1,30 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntListTest {
+
+    //проверка добавления, поиска и удаления с сохранением порядка
+    @Test
+    void testAddRemoveKeepsOrder() {
+        IntList list = new IntList();
+        for (int i = 1; i <= 10; i++) {
+            list.add(i * 10);
+        }
+
+        assertTrue(list.removeValue(30));
+        assertFalse(list.removeValue(35));
+        assertEquals(9, list.size());
+        assertEquals(40, list.get(2));
+        assertTrue(list.contains(100));
+        assertEquals(List.of(10, 20, 40, 50, 60, 70, 80, 90, 100), list.toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(9));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+}